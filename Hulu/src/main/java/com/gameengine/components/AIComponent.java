@@ -3,11 +3,13 @@ package com.gameengine.components;
 import com.gameengine.core.Component;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.GameLogic;
+import com.gameengine.core.UpdatePhase;
 import com.gameengine.math.Vector2;
-import com.gameengine.physics.AABB;
+import com.gameengine.physics.PhysicsWorld;
 import com.gameengine.scene.Scene;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * AI组件，处理敌人的AI行为（如自动射击、寻找目标等）
@@ -16,11 +18,15 @@ public class AIComponent extends Component<AIComponent> {
     private float currentCooldown; // 当前冷却时间
     private float fireInterval; // 射击间隔时间
     private String targetName; // 目标对象名称
+    private float detectionRange; // 索敌半径（0表示不限距离，瞄准场景中第一个同名目标）
+    private int targetLayers;     // 索敌时查询的碰撞层位集合
+    private final Runnable shootTask = this::shootAtTarget; // 复用的射击任务，避免每次射击分配
     
     public AIComponent() {
         this.currentCooldown = 0;
         this.fireInterval = 2.0f;
         this.targetName = "Player";
+        this.targetLayers = PhysicsWorld.ALL_LAYERS;
     }
     
     public AIComponent(float fireInterval, String targetName) {
@@ -40,13 +46,21 @@ public class AIComponent extends Component<AIComponent> {
         
         currentCooldown -= deltaTime;
         
-        // 自动射击逻辑
+        // 自动射击逻辑（生成子弹是结构性修改，并行更新时推迟到场景的提交点）
         if (currentCooldown <= 0) {
-            shootAtTarget();
-            currentCooldown = fireInterval + (float)(Math.random() * 1.0f); // 随机冷却
+            Scene scene = owner.getScene();
+            if (scene != null) {
+                scene.deferStructuralChange(shootTask);
+            }
+            currentCooldown = fireInterval + ThreadLocalRandom.current().nextFloat(); // 随机冷却
         }
     }
     
+    @Override
+    public UpdatePhase getUpdatePhase() {
+        return UpdatePhase.AI;
+    }
+    
     @Override
     public void render() {
         // AI组件不直接渲染
@@ -59,34 +73,42 @@ public class AIComponent extends Component<AIComponent> {
         Scene scene = owner.getScene();
         if (scene == null) return;
         
-        // 查找目标
-        List<GameObject> targets = scene.findGameObjectsByName(targetName);
-        if (targets.isEmpty()) return;
-        
-        GameObject target = targets.get(0);
-        TransformComponent targetTransform = target.getComponent(TransformComponent.class);
         TransformComponent enemyTransform = owner.getComponent(TransformComponent.class);
+        if (enemyTransform == null) return;
         
-        if (targetTransform == null || enemyTransform == null) return;
+        // 查找目标
+        GameObject target = findTarget(scene, enemyTransform);
+        if (target == null) return;
         
-        // 计算射击方向
-        Vector2 enemyPos = enemyTransform.getPosition();
-        Vector2 targetPos = targetTransform.getPosition();
-        Vector2 direction = targetPos.subtract(enemyPos).normalize();
+        TransformComponent targetTransform = target.getComponent(TransformComponent.class);
+        if (targetTransform == null) return;
         
-        // 创建子弹
-        Bullet bullet = new Bullet("EnemyBullet", owner, direction, enemyPos);
-        scene.addGameObject(bullet);
+        // 计算射击方向（子弹发射时归一化）
+        float x = enemyTransform.getX();
+        float y = enemyTransform.getY();
+        float dirX = targetTransform.getX() - x;
+        float dirY = targetTransform.getY() - y;
         
-        // 注册子弹到物理系统
+        // 从对象池取出子弹并注册到物理系统
         GameLogic gameLogic = scene.getGameLogic();
         if (gameLogic != null) {
-            gameLogic.getPhysicsWorld().registerPhysicsBody(
-                bullet,
-                new AABB(enemyPos, new Vector2(8, 8)),
-                2 // 子弹层
-            );
+            gameLogic.spawnBullet("EnemyBullet", owner, dirX, dirY, x, y);
+        } else {
+            scene.addGameObject(new Bullet("EnemyBullet", owner, new Vector2(dirX, dirY), new Vector2(x, y)));
+        }
+    }
+    
+    /**
+     * 查找射击目标：设置了索敌半径且有物理世界时，通过包围盒树查询半径内最近的同名目标
+     */
+    private GameObject findTarget(Scene scene, TransformComponent enemyTransform) {
+        GameLogic gameLogic = scene.getGameLogic();
+        if (detectionRange > 0 && gameLogic != null && gameLogic.getPhysicsWorld() != null) {
+            return gameLogic.getPhysicsWorld().findNearest(
+                enemyTransform.getX(), enemyTransform.getY(), detectionRange, targetLayers, targetName, owner);
         }
+        List<GameObject> targets = scene.findGameObjectsByName(targetName);
+        return targets.isEmpty() ? null : targets.get(0);
     }
     
     /**
@@ -103,6 +125,28 @@ public class AIComponent extends Component<AIComponent> {
         this.targetName = name;
     }
     
+    /**
+     * 设置索敌半径（像素），0表示不限距离
+     */
+    public void setDetectionRange(float range) {
+        this.detectionRange = Math.max(0, range);
+    }
+    
+    public float getDetectionRange() {
+        return detectionRange;
+    }
+    
+    /**
+     * 设置索敌时查询的碰撞层位集合（如 1 << CollisionMatrix.PLAYER），默认查询全部层
+     */
+    public void setTargetLayers(int layerMask) {
+        this.targetLayers = layerMask;
+    }
+    
+    public int getTargetLayers() {
+        return targetLayers;
+    }
+    
     public float getFireInterval() {
         return fireInterval;
     }
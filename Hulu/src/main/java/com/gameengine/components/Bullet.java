@@ -1,45 +1,91 @@
 package com.gameengine.components;
 
 import com.gameengine.core.GameObject;
+import com.gameengine.core.ObjectPool;
 import com.gameengine.math.Vector2;
+import com.gameengine.physics.AABB;
+import com.gameengine.physics.CollisionShape;
 
 // 移除生命周期相关变量和逻辑
 public class Bullet extends GameObject {
+    private static final float SPEED = 100; // 子弹速度
+    private static final float SIZE = 8;    // 子弹边长
+
     private GameObject shooter; // 仅保留发射者记录
-    
+    private final CollisionShape collider; // 碰撞体（随子弹复用，可换成 Circle 等任意形状）
+    private ObjectPool<Bullet> pool; // 所属对象池，为null时离开场景即销毁
+
     public Bullet(String name, GameObject shooter, Vector2 direction, Vector2 position) {
+        this(name);
+        launch(name, shooter, direction.x, direction.y, position.x, position.y);
+    }
+
+    /**
+     * 创建未发射的子弹（供对象池使用，发射前需调用 launch）
+     */
+    public Bullet(String name) {
         super(name);
-        this.shooter = shooter;
-        
+        this.collider = new AABB(new Vector2(), new Vector2(SIZE, SIZE));
+
         // 添加变换组件
-        TransformComponent transform = addComponent(new TransformComponent(position));
-        
+        addComponent(new TransformComponent(new Vector2()));
+
         // 添加渲染组件（蓝色小矩形）
-        RenderComponent render = addComponent(new RenderComponent(
+        addComponent(new RenderComponent(
             RenderComponent.RenderType.RECTANGLE,
-            new Vector2(8, 8),
+            new Vector2(SIZE, SIZE),
             new RenderComponent.Color(0.2f, 0.2f, 1.0f, 1.0f)
         ));
-        
+
         // 添加物理组件
         PhysicsComponent physics = addComponent(new PhysicsComponent(0.1f));
         physics.setUseGravity(false); // 子弹不受重力影响
-        physics.setVelocity(direction.normalize().multiply(100)); // 子弹速度
         physics.setFriction(1.0f); // 关键：取消摩擦力（避免速度衰减）
     }
-    
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        // 移除生命周期检查逻辑，不再自动销毁
+
+    /**
+     * 从指定位置沿指定方向发射（新建或从对象池取出后调用）
+     */
+    public void launch(String name, GameObject shooter, float dirX, float dirY, float x, float y) {
+        setName(name);
+        setActive(true);
+        this.shooter = shooter;
+
+        TransformComponent transform = getComponent(TransformComponent.class);
+        transform.setPosition(x, y);
+        transform.storePreviousPosition(); // 复用时避免从上一次的位置插值
+        collider.updatePosition(x, y);
+
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY);
+        float scale = length == 0 ? 0 : SPEED / length;
+        getComponent(PhysicsComponent.class).setVelocity(dirX * scale, dirY * scale);
     }
-    
+
     public GameObject getShooter() {
         return shooter;
     }
 
+    public CollisionShape getCollider() {
+        return collider;
+    }
+
+    public void setPool(ObjectPool<Bullet> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void recycle() {
+        if (pool != null && !isDestroyed()) {
+            shooter = null;
+            setScene(null);
+            pool.release(this);
+        } else {
+            destroy();
+        }
+    }
+
     @Override
     public void destroy() {
         super.destroy();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.gameengine.components;
+
+import java.util.Arrays;
+
+/**
+ * 变换/物理数据的结构数组（SoA）存储，按实体编号索引
+ * TransformComponent 和 PhysicsComponent 绑定到实体后只是这些数组上的视图，
+ * 积分时按实体编号直接读写连续的 float 数组，不再为每次计算分配 Vector2
+ */
+public final class MotionStore {
+    private static final int INITIAL_CAPACITY = 256;
+    private static MotionStore instance;
+
+    // 变换数据
+    float[] x;
+    float[] y;
+    float[] prevX;      // 上一模拟步位置（渲染插值用）
+    float[] prevY;
+
+    // 物理数据
+    float[] vx;
+    float[] vy;
+    float[] ax;
+    float[] ay;
+    float[] mass;
+    float[] friction;
+    float[] gx;         // 生效的重力加速度（未启用重力时为0）
+    float[] gy;
+
+    private MotionStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public static MotionStore getInstance() {
+        if (instance == null) {
+            instance = new MotionStore();
+        }
+        return instance;
+    }
+
+    /**
+     * 确保能容纳指定实体编号
+     */
+    void ensureCapacity(int entity) {
+        if (entity < x.length) return;
+        int newCapacity = x.length;
+        while (newCapacity <= entity) {
+            newCapacity *= 2;
+        }
+        allocate(newCapacity);
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        vx = grow(vx, capacity);
+        vy = grow(vy, capacity);
+        ax = grow(ax, capacity);
+        ay = grow(ay, capacity);
+        mass = grow(mass, capacity);
+        friction = grow(friction, capacity);
+        gx = grow(gx, capacity);
+        gy = grow(gy, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * 摩擦系数按积分时长所占比例折算：一次 update 拆成若干子步时，各子步的系数相乘仍等于原系数，
+     * 衰减与子步数无关；比例为1时原样返回（不拆子步时结果与原来逐位相同）
+     * @param fraction 本次积分时长占整个 update 的比例
+     */
+    public static float scaleFriction(float friction, float fraction) {
+        return fraction == 1.0f ? friction : (float) Math.pow(friction, fraction);
+    }
+
+    /**
+     * 对单个实体做一次半隐式欧拉积分（与原 PhysicsComponent.update 的计算顺序一致）
+     * @param fraction 本次积分时长占整个 update 的比例（用于折算摩擦）
+     */
+    void integrate(int e, float deltaTime, float fraction) {
+        float f = scaleFriction(friction[e], fraction);
+        float nvx = (vx[e] + (ax[e] + gx[e]) * deltaTime) * f;
+        float nvy = (vy[e] + (ay[e] + gy[e]) * deltaTime) * f;
+        vx[e] = nvx;
+        vy[e] = nvy;
+        x[e] += nvx * deltaTime;
+        y[e] += nvy * deltaTime;
+        ax[e] = 0;
+        ay[e] = 0;
+    }
+
+    /**
+     * 批量积分一组实体
+     * @param entities 实体编号（须同时绑定了变换和物理数据，见 PhysicsComponent.getMotionIndex）
+     * @param count 有效数量
+     * @param fraction 本次积分时长占整个 update 的比例（子步积分时用于折算摩擦）
+     */
+    public void integrate(int[] entities, int count, float deltaTime, float fraction) {
+        float[] x = this.x, y = this.y, vx = this.vx, vy = this.vy;
+        float[] ax = this.ax, ay = this.ay, gx = this.gx, gy = this.gy, friction = this.friction;
+        for (int i = 0; i < count; i++) {
+            int e = entities[i];
+            float f = scaleFriction(friction[e], fraction);
+            float nvx = (vx[e] + (ax[e] + gx[e]) * deltaTime) * f;
+            float nvy = (vy[e] + (ay[e] + gy[e]) * deltaTime) * f;
+            vx[e] = nvx;
+            vy[e] = nvy;
+            x[e] += nvx * deltaTime;
+            y[e] += nvy * deltaTime;
+            ax[e] = 0;
+            ay[e] = 0;
+        }
+    }
+}
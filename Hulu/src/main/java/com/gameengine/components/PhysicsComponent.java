@@ -1,158 +1,350 @@
 package com.gameengine.components;
 
 import com.gameengine.core.Component;
+import com.gameengine.core.UpdatePhase;
 import com.gameengine.math.Vector2;
 
 /**
  * 物理组件，处理物理运动
+ * 绑定到实体后速度、加速度、质量、摩擦存放在 MotionStore 中，组件只是视图
  */
 public class PhysicsComponent extends Component<PhysicsComponent> {
-    private Vector2 velocity;
-    private Vector2 acceleration;
-    private float mass;
-    private float friction;
+    private final MotionStore store;
+    private int index;          // 绑定的实体编号，-1表示未绑定（数据保存在本地字段）
+    private float localVx;      // 未绑定时的数据
+    private float localVy;
+    private float localAx;
+    private float localAy;
+    private float localMass;
+    private float localFriction;
     private boolean useGravity;
     private Vector2 gravity;
-    
+    private boolean sleeping;        // 休眠中：物理世界跳过积分、重力和边界检查
+    private boolean sleepingAllowed; // 是否允许休眠
+    private float restTime;          // 速度持续低于阈值的时间
+
     public PhysicsComponent() {
-        this.velocity = new Vector2();
-        this.acceleration = new Vector2();
-        this.mass = 1.0f;
-        this.friction = 0.9f;
+        this.store = MotionStore.getInstance();
+        this.index = -1;
+        this.localMass = 1.0f;
+        this.localFriction = 0.9f;
         this.useGravity = false;
         this.gravity = new Vector2(0, 9.8f);
+        this.sleepingAllowed = true;
     }
-    
+
     public PhysicsComponent(float mass) {
         this();
-        this.mass = mass;
+        this.localMass = mass;
     }
-    
+
     @Override
     public void initialize() {
-        // 初始化物理组件
+        bindIfPrimary();
+    }
+
+    @Override
+    public void onEntityAttached() {
+        bindIfPrimary(); // 对象加入场景前添加的组件在分配实体后绑定
     }
-    
+
+    // 作为实体的主物理组件时绑定到SoA存储（对象还没有实体时保持本地字段）
+    private void bindIfPrimary() {
+        if (index < 0 && owner != null && owner.getEntity() >= 0
+                && owner.getComponent(PhysicsComponent.class) == this) {
+            bind(owner.getEntity());
+        }
+    }
+
     @Override
     public void update(float deltaTime) {
+        integrate(deltaTime, 1.0f);
+    }
+
+    /**
+     * 积分一段时间（物理世界按子步调用）
+     * @param fraction 本次积分时长占整个 update 的比例，摩擦按比例折算，使衰减与子步数无关
+     */
+    public void integrate(float deltaTime, float fraction) {
         if (!enabled) return;
-        
+
         TransformComponent transform = owner.getComponent(TransformComponent.class);
         if (transform == null) return;
-        
-        // 应用重力
-        if (useGravity) {
-            acceleration = acceleration.add(gravity);
+
+        if (index >= 0 && transform.getStoreIndex() == index) {
+            store.integrate(index, deltaTime, fraction);
+            return;
         }
-        
-        // 更新速度
-        velocity = velocity.add(acceleration.multiply(deltaTime));
-        
-        // 应用摩擦力
-        // 摩擦力的本质是阻碍物体相对运动的力，在这段代码中通过速度衰减来模拟
-        velocity = velocity.multiply(friction);
-        
-        // 更新位置
-        Vector2 deltaPosition = velocity.multiply(deltaTime);
-        transform.translate(deltaPosition);
-        
-        // 重置加速度
-        acceleration = new Vector2();
-    }
-    
+
+        // 未绑定到存储时的通用路径
+        float friction = MotionStore.scaleFriction(getFriction(), fraction);
+        float nvx = (getVelocityX() + (getAccelerationX() + effectiveGravityX()) * deltaTime) * friction;
+        float nvy = (getVelocityY() + (getAccelerationY() + effectiveGravityY()) * deltaTime) * friction;
+        storeVelocity(nvx, nvy); // 积分本身不唤醒
+        transform.translate(nvx * deltaTime, nvy * deltaTime);
+        setAcceleration(0, 0);
+    }
+
+    @Override
+    public UpdatePhase getUpdatePhase() {
+        return UpdatePhase.MOVEMENT; // 只积分自身实体的数据
+    }
+
     @Override
     public void render() {
         // 物理组件不直接渲染
     }
-    
+
+    @Override
+    public void reset() {
+        storeVelocity(0, 0);
+        setAcceleration(0, 0);
+        wakeUp();
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        // 实体编号会被复用，销毁后数据移回本地字段
+        unbind();
+    }
+
+    private void bind(int entity) {
+        store.ensureCapacity(entity);
+        store.vx[entity] = localVx;
+        store.vy[entity] = localVy;
+        store.ax[entity] = localAx;
+        store.ay[entity] = localAy;
+        store.mass[entity] = localMass;
+        store.friction[entity] = localFriction;
+        index = entity;
+        syncGravity();
+    }
+
+    private void unbind() {
+        if (index < 0) return;
+        localVx = store.vx[index];
+        localVy = store.vy[index];
+        localAx = store.ax[index];
+        localAy = store.ay[index];
+        localMass = store.mass[index];
+        localFriction = store.friction[index];
+        index = -1;
+    }
+
+    private void syncGravity() {
+        if (index < 0) return;
+        store.gx[index] = effectiveGravityX();
+        store.gy[index] = effectiveGravityY();
+    }
+
+    private float effectiveGravityX() {
+        return useGravity ? gravity.x : 0;
+    }
+
+    private float effectiveGravityY() {
+        return useGravity ? gravity.y : 0;
+    }
+
+    /**
+     * 获取可批量积分的实体编号：组件启用且与变换组件绑定在同一实体时返回编号，否则返回-1
+     */
+    public int getMotionIndex() {
+        if (!enabled || index < 0 || owner == null) return -1;
+        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        return transform != null && transform.getStoreIndex() == index ? index : -1;
+    }
+
+    /**
+     * 由物理世界每步调用：速度低于阈值的时间累计达到 timeToSleep 后进入休眠（速度和加速度清零）
+     * @return 本次是否进入休眠
+     */
+    public boolean updateSleep(float deltaTime, float speedThreshold, float timeToSleep) {
+        if (sleeping) return false;
+        float vx = getVelocityX();
+        float vy = getVelocityY();
+        if (!sleepingAllowed || vx * vx + vy * vy > speedThreshold * speedThreshold) {
+            restTime = 0;
+            return false;
+        }
+        restTime += deltaTime;
+        if (restTime < timeToSleep) return false;
+        storeVelocity(0, 0);
+        setAcceleration(0, 0);
+        sleeping = true;
+        return true;
+    }
+
+    /**
+     * 唤醒（施加力、冲量、设置速度和发生接触时自动调用）
+     */
+    public void wakeUp() {
+        sleeping = false;
+        restTime = 0;
+    }
+
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    /**
+     * 设置是否允许休眠（禁止时立即唤醒）
+     */
+    public void setSleepingAllowed(boolean allowed) {
+        this.sleepingAllowed = allowed;
+        if (!allowed) {
+            wakeUp();
+        }
+    }
+
+    public boolean isSleepingAllowed() {
+        return sleepingAllowed;
+    }
+
     /**
      * 应用力
      */
     public void applyForce(Vector2 force) {
-        if (mass > 0) {
-            acceleration = acceleration.add(force.multiply(1.0f / mass));
+        float mass = getMass();
+        if (mass > 0 && (force.x != 0 || force.y != 0)) {
+            wakeUp();
+            setAcceleration(getAccelerationX() + force.x / mass, getAccelerationY() + force.y / mass);
         }
     }
-    
+
     /**
      * 应用冲量
      */
     public void applyImpulse(Vector2 impulse) {
-        if (mass > 0) {
-            velocity = velocity.add(impulse.multiply(1.0f / mass));
+        float mass = getMass();
+        if (mass > 0 && (impulse.x != 0 || impulse.y != 0)) {
+            setVelocity(getVelocityX() + impulse.x / mass, getVelocityY() + impulse.y / mass);
         }
     }
-    
+
     /**
      * 设置速度
      */
     public void setVelocity(Vector2 velocity) {
-        this.velocity = new Vector2(velocity);
+        setVelocity(velocity.x, velocity.y);
     }
-    
+
     /**
-     * 设置速度
+     * 设置速度（非零速度会唤醒休眠的物体）
      */
     public void setVelocity(float x, float y) {
-        this.velocity = new Vector2(x, y);
+        if (x != 0 || y != 0) {
+            wakeUp();
+        }
+        storeVelocity(x, y);
+    }
+
+    private void storeVelocity(float x, float y) {
+        if (index >= 0) {
+            store.vx[index] = x;
+            store.vy[index] = y;
+        } else {
+            localVx = x;
+            localVy = y;
+        }
     }
-    
+
     /**
      * 添加速度
      */
     public void addVelocity(Vector2 delta) {
-        this.velocity = velocity.add(delta);
+        setVelocity(getVelocityX() + delta.x, getVelocityY() + delta.y);
     }
-    
+
+    private void setAcceleration(float x, float y) {
+        if (index >= 0) {
+            store.ax[index] = x;
+            store.ay[index] = y;
+        } else {
+            localAx = x;
+            localAy = y;
+        }
+    }
+
     /**
      * 设置重力
      */
     public void setGravity(Vector2 gravity) {
         this.gravity = new Vector2(gravity);
+        syncGravity();
+        wakeUp();
     }
-    
+
     /**
      * 启用/禁用重力
      */
     public void setUseGravity(boolean useGravity) {
         this.useGravity = useGravity;
+        syncGravity();
+        wakeUp();
     }
-    
+
     /**
      * 设置摩擦力
      */
     public void setFriction(float friction) {
-        this.friction = Math.max(0, Math.min(1, friction));
+        float clamped = Math.max(0, Math.min(1, friction));
+        if (index >= 0) {
+            store.friction[index] = clamped;
+        } else {
+            localFriction = clamped;
+        }
     }
-    
+
     /**
      * 设置质量
      */
     public void setMass(float mass) {
-        this.mass = Math.max(0.1f, mass);
+        float clamped = Math.max(0.1f, mass);
+        if (index >= 0) {
+            store.mass[index] = clamped;
+        } else {
+            localMass = clamped;
+        }
     }
-    
+
     // Getters
     public Vector2 getVelocity() {
-        return new Vector2(velocity);
+        return new Vector2(getVelocityX(), getVelocityY());
+    }
+
+    public float getVelocityX() {
+        return index >= 0 ? store.vx[index] : localVx;
     }
-    
+
+    public float getVelocityY() {
+        return index >= 0 ? store.vy[index] : localVy;
+    }
+
     public Vector2 getAcceleration() {
-        return new Vector2(acceleration);
+        return new Vector2(getAccelerationX(), getAccelerationY());
     }
-    
+
+    public float getAccelerationX() {
+        return index >= 0 ? store.ax[index] : localAx;
+    }
+
+    public float getAccelerationY() {
+        return index >= 0 ? store.ay[index] : localAy;
+    }
+
     public float getMass() {
-        return mass;
+        return index >= 0 ? store.mass[index] : localMass;
     }
-    
+
     public float getFriction() {
-        return friction;
+        return index >= 0 ? store.friction[index] : localFriction;
     }
-    
+
     public boolean isUseGravity() {
         return useGravity;
     }
-    
+
     public Vector2 getGravity() {
         return new Vector2(gravity);
     }
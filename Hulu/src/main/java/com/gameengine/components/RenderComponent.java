@@ -1,6 +1,7 @@
 package com.gameengine.components;
 
 import com.gameengine.core.Component;
+import com.gameengine.core.UpdatePhase;
 import com.gameengine.core.GameEngine;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.math.Vector2;
@@ -65,6 +66,11 @@ public class RenderComponent extends Component<RenderComponent> {
         // 渲染组件通常不需要每帧更新
     }
     
+    @Override
+    public UpdatePhase getUpdatePhase() {
+        return UpdatePhase.POST_PHYSICS; // 更新为空操作，可以并行
+    }
+    
     @Override
     public void render() {
         if (!visible || renderer == null) {
@@ -76,20 +82,22 @@ public class RenderComponent extends Component<RenderComponent> {
             return;
         }
         
-        Vector2 position = transform.getPosition();
+        float alpha = owner.getScene() != null ? owner.getScene().getRenderAlpha() : 1.0f;
+        float x = transform.getInterpolatedX(alpha);
+        float y = transform.getInterpolatedY(alpha);
         
         switch (renderType) {
             case RECTANGLE:
-                renderer.drawRect(position.x, position.y, size.x, size.y, 
+                renderer.drawRect(x, y, size.x, size.y, 
                                 color.r, color.g, color.b, color.a);
                 break;
             case CIRCLE:
-                renderer.drawCircle(position.x + size.x/2, position.y + size.y/2, 
+                renderer.drawCircle(x + size.x/2, y + size.y/2, 
                                   size.x/2, 16, color.r, color.g, color.b, color.a);
                 break;
             case LINE:
-                renderer.drawLine(position.x, position.y, 
-                                position.x + size.x, position.y + size.y,
+                renderer.drawLine(x, y, 
+                                x + size.x, y + size.y,
                                 color.r, color.g, color.b, color.a);
                 break;
         }
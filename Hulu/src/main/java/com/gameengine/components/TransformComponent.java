@@ -1,103 +1,230 @@
 package com.gameengine.components;
 
 import com.gameengine.core.Component;
+import com.gameengine.core.UpdatePhase;
 import com.gameengine.math.Vector2;
 
 /**
  * 变换组件，管理位置、旋转、缩放
+ * 绑定到实体后位置数据存放在 MotionStore 中，组件只是按实体编号访问的视图
  */
 public class TransformComponent extends Component<TransformComponent> {
-    private Vector2 position;
+    private final MotionStore store;
+    private int index;          // 绑定的实体编号，-1表示未绑定（位置保存在本地字段）
+    private float localX;       // 未绑定时的位置
+    private float localY;
+    private float localPrevX;   // 未绑定时上一模拟步的位置
+    private float localPrevY;
     private Vector2 scale;
     private float rotation;
-    
+
     public TransformComponent() {
-        this.position = new Vector2();
+        this.store = MotionStore.getInstance();
+        this.index = -1;
         this.scale = new Vector2(1, 1);
         this.rotation = 0;
     }
-    
+
     public TransformComponent(Vector2 position) {
         this();
-        this.position = new Vector2(position);
+        this.localX = this.localPrevX = position.x;
+        this.localY = this.localPrevY = position.y;
     }
-    
+
     public TransformComponent(Vector2 position, Vector2 scale, float rotation) {
-        this.position = new Vector2(position);
+        this(position);
         this.scale = new Vector2(scale);
         this.rotation = rotation;
     }
-    
+
     @Override
     public void initialize() {
-        // 初始化变换组件
+        bindIfPrimary();
+    }
+
+    @Override
+    public void onEntityAttached() {
+        bindIfPrimary(); // 对象加入场景前添加的组件在分配实体后绑定
+    }
+
+    // 作为实体的主变换组件时绑定到SoA存储（对象还没有实体时保持本地字段）
+    private void bindIfPrimary() {
+        if (index < 0 && owner != null && owner.getEntity() >= 0
+                && owner.getComponent(TransformComponent.class) == this) {
+            bind(owner.getEntity());
+        }
     }
-    
+
     @Override
     public void update(float deltaTime) {
         // 变换组件通常不需要每帧更新
     }
-    
+
+    @Override
+    public UpdatePhase getUpdatePhase() {
+        return UpdatePhase.POST_PHYSICS; // 更新为空操作，可以并行
+    }
+
     @Override
     public void render() {
         // 变换组件不直接渲染
     }
-    
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        // 实体编号会被复用，销毁后数据移回本地字段
+        unbind();
+    }
+
+    private void bind(int entity) {
+        store.ensureCapacity(entity);
+        store.x[entity] = localX;
+        store.y[entity] = localY;
+        store.prevX[entity] = localPrevX;
+        store.prevY[entity] = localPrevY;
+        index = entity;
+    }
+
+    private void unbind() {
+        if (index < 0) return;
+        localX = store.x[index];
+        localY = store.y[index];
+        localPrevX = store.prevX[index];
+        localPrevY = store.prevY[index];
+        index = -1;
+    }
+
+    /**
+     * 获取绑定的实体编号，未绑定时返回-1
+     */
+    public int getStoreIndex() {
+        return index;
+    }
+
     /**
      * 移动到指定位置
      */
     public void moveTo(Vector2 newPosition) {
-        this.position = new Vector2(newPosition);
+        setPosition(newPosition.x, newPosition.y);
     }
-    
+
     /**
      * 移动相对距离
      */
     public void translate(Vector2 delta) {
-        this.position = position.add(delta);
+        translate(delta.x, delta.y);
+    }
+
+    /**
+     * 移动相对距离
+     */
+    public void translate(float dx, float dy) {
+        if (index >= 0) {
+            store.x[index] += dx;
+            store.y[index] += dy;
+        } else {
+            localX += dx;
+            localY += dy;
+        }
+    }
+
+    /**
+     * 记录当前位置作为上一模拟步的位置
+     */
+    public void storePreviousPosition() {
+        if (index >= 0) {
+            store.prevX[index] = store.x[index];
+            store.prevY[index] = store.y[index];
+        } else {
+            localPrevX = localX;
+            localPrevY = localY;
+        }
+    }
+
+    /**
+     * 获取插值后的位置
+     * @param alpha 插值系数，0为上一模拟步位置，1为当前位置
+     */
+    public Vector2 getInterpolatedPosition(float alpha) {
+        return new Vector2(getInterpolatedX(alpha), getInterpolatedY(alpha));
+    }
+
+    /**
+     * 获取插值后的X坐标（不分配对象）
+     */
+    public float getInterpolatedX(float alpha) {
+        float px = index >= 0 ? store.prevX[index] : localPrevX;
+        return px + (getX() - px) * alpha;
     }
-    
+
+    /**
+     * 获取插值后的Y坐标（不分配对象）
+     */
+    public float getInterpolatedY(float alpha) {
+        float py = index >= 0 ? store.prevY[index] : localPrevY;
+        return py + (getY() - py) * alpha;
+    }
+
     /**
      * 旋转指定角度
      */
     public void rotate(float angle) {
         this.rotation += angle;
     }
-    
+
     /**
      * 设置旋转角度
      */
     public void setRotation(float angle) {
         this.rotation = angle;
     }
-    
+
     /**
      * 缩放
      */
     public void scale(Vector2 scaleFactor) {
         this.scale = new Vector2(this.scale.x * scaleFactor.x, this.scale.y * scaleFactor.y);
     }
-    
+
     /**
      * 设置缩放
      */
     public void setScale(Vector2 newScale) {
         this.scale = new Vector2(newScale);
     }
-    
+
     // Getters and Setters
     public Vector2 getPosition() {
-        return new Vector2(position);
+        return new Vector2(getX(), getY());
+    }
+
+    public float getX() {
+        return index >= 0 ? store.x[index] : localX;
     }
-    
+
+    public float getY() {
+        return index >= 0 ? store.y[index] : localY;
+    }
+
     public void setPosition(Vector2 position) {
-        this.position = new Vector2(position);
+        setPosition(position.x, position.y);
     }
-    
+
+    public void setPosition(float x, float y) {
+        if (index >= 0) {
+            store.x[index] = x;
+            store.y[index] = y;
+        } else {
+            localX = x;
+            localY = y;
+        }
+    }
+
     public Vector2 getScale() {
         return new Vector2(scale);
     }
-    
+
     public float getRotation() {
         return rotation;
     }
@@ -0,0 +1,124 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 原型：组件类型集合完全相同的实体共享一组紧凑的列存储
+ * 每个组件类型一列，同一行属于同一实体，系统可以按列顺序遍历而无需逐对象查找
+ */
+public class Archetype {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BitSet signature;         // 组件类型ID集合（含父类型ID）
+    private final int[] typeIds;            // 签名中的类型ID（升序）
+    private final int[] columnIndex;        // 类型ID -> 列下标，-1表示不存在
+    private final Component<?>[][] columns; // 每种类型一列
+    private int[] entities;                 // 每行对应的实体
+    private int size;                       // 当前行数
+    private final Map<Integer, Archetype> addEdges; // 添加某类组件后迁移到的原型（缓存）
+
+    Archetype(BitSet signature) {
+        this.signature = (BitSet) signature.clone();
+        this.typeIds = signature.stream().toArray();
+        int maxTypeId = typeIds.length == 0 ? -1 : typeIds[typeIds.length - 1];
+        this.columnIndex = new int[maxTypeId + 1];
+        Arrays.fill(columnIndex, -1);
+        for (int i = 0; i < typeIds.length; i++) {
+            columnIndex[typeIds[i]] = i;
+        }
+        this.columns = new Component<?>[typeIds.length][INITIAL_CAPACITY];
+        this.entities = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.addEdges = new HashMap<>();
+    }
+
+    /**
+     * 追加一行，返回行号
+     */
+    int addRow(int entity) {
+        if (size == entities.length) {
+            int newCapacity = entities.length * 2;
+            entities = Arrays.copyOf(entities, newCapacity);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], newCapacity);
+            }
+        }
+        entities[size] = entity;
+        return size++;
+    }
+
+    /**
+     * 删除一行：用最后一行填补空位
+     * @return 被移动到该行的实体，没有移动时返回 -1
+     */
+    int removeRow(int row) {
+        int last = --size;
+        int moved = -1;
+        if (row != last) {
+            entities[row] = entities[last];
+            for (Component<?>[] column : columns) {
+                column[row] = column[last];
+            }
+            moved = entities[row];
+        }
+        for (Component<?>[] column : columns) {
+            column[last] = null;
+        }
+        return moved;
+    }
+
+    Component<?> get(int row, int typeId) {
+        if (typeId >= columnIndex.length) return null;
+        int c = columnIndex[typeId];
+        return c < 0 ? null : columns[c][row];
+    }
+
+    void set(int row, int typeId, Component<?> component) {
+        columns[columnIndex[typeId]][row] = component;
+    }
+
+    Archetype getAddEdge(int typeId) {
+        return addEdges.get(typeId);
+    }
+
+    void setAddEdge(int typeId, Archetype target) {
+        addEdges.put(typeId, target);
+    }
+
+    BitSet getSignature() {
+        return signature;
+    }
+
+    int[] getTypeIds() {
+        return typeIds;
+    }
+
+    /**
+     * 是否包含指定的组件类型
+     */
+    public boolean hasType(int typeId) {
+        return typeId < columnIndex.length && columnIndex[typeId] >= 0;
+    }
+
+    /**
+     * 获取某类组件的列（长度可能大于 size()，只有前 size() 个元素有效），不存在时返回 null
+     */
+    public Component<?>[] getColumn(Class<?> componentType) {
+        int typeId = ComponentRegistry.getTypeId(componentType);
+        return hasType(typeId) ? columns[columnIndex[typeId]] : null;
+    }
+
+    /**
+     * 获取某行对应的实体
+     */
+    public int getEntity(int row) {
+        return entities[row];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -37,6 +37,26 @@ public abstract class Component<T extends Component<T>> {
         this.enabled = false;
     }
     
+    /**
+     * 获取并行更新模式下组件所属的阶段
+     * 默认返回 null，表示组件不能并行更新，所属对象整体在主线程串行更新
+     */
+    public UpdatePhase getUpdatePhase() {
+        return null;
+    }
+    
+    /**
+     * 所属对象加入场景、分配到实体后调用（组件已存入实体存储），子类按需重写
+     */
+    public void onEntityAttached() {
+    }
+    
+    /**
+     * 重置组件状态（所属对象被对象池回收时调用），子类按需重写
+     */
+    public void reset() {
+    }
+    
     /**
      * 获取组件类型
      */
@@ -0,0 +1,61 @@
+package com.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组件类型注册表，为每个组件类分配一个稠密的整数ID
+ * GameObject 以该ID作为槽位下标，按类型查找组件只需一次数组访问
+ */
+public final class ComponentRegistry {
+    private static final AtomicInteger nextTypeId = new AtomicInteger();
+
+    // 组件类 -> 类型ID
+    private static final ClassValue<Integer> TYPE_IDS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextTypeId.getAndIncrement();
+        }
+    };
+
+    // 组件类 -> 自身及所有父类（不含Component本身）的类型ID，用于支持按父类查找
+    private static final ClassValue<int[]> HIERARCHY_IDS = new ClassValue<int[]>() {
+        @Override
+        protected int[] computeValue(Class<?> type) {
+            List<Integer> ids = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Component.class && c != Object.class; c = c.getSuperclass()) {
+                ids.add(getTypeId(c));
+            }
+            int[] result = new int[ids.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ids.get(i);
+            }
+            return result;
+        }
+    };
+
+    private ComponentRegistry() {}
+
+    /**
+     * 获取组件类的类型ID（首次访问时分配）
+     */
+    public static int getTypeId(Class<?> componentType) {
+        return TYPE_IDS.get(componentType);
+    }
+
+    /**
+     * 获取组件类自身及其父类的类型ID
+     * 组件注册到这些槽位后，按任一父类查找都能命中
+     */
+    public static int[] getHierarchyIds(Class<?> componentType) {
+        return HIERARCHY_IDS.get(componentType);
+    }
+
+    /**
+     * 当前已分配的类型数量
+     */
+    public static int getTypeCount() {
+        return nextTypeId.get();
+    }
+}
@@ -0,0 +1,91 @@
+package com.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 并行检测用的接触收集器：检测阶段各线程把接触对写入自己的缓冲区（无竞争），
+ * 检测结束后在主线程合并并按 (a, b) 排序，使结算顺序与线程调度无关，结果可复现
+ * 接触对的两个编号都必须是非负整数（通常是列表下标）
+ */
+public final class ContactCollector {
+    // 单个线程的接触缓冲区，接触对编码为 a<<32 | b
+    private static final class Buffer {
+        long[] keys = new long[64];
+        int size;
+
+        void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+    }
+
+    private final List<Buffer> buffers = new ArrayList<>(); // 所有线程的缓冲区（受 buffers 锁保护）
+    private final ThreadLocal<Buffer> localBuffer = ThreadLocal.withInitial(this::newBuffer);
+    private long[] merged = new long[64];
+    private int count;
+
+    private Buffer newBuffer() {
+        Buffer buffer = new Buffer();
+        synchronized (buffers) {
+            buffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * 记录一个接触对（检测阶段在任意线程调用）
+     */
+    public void add(int a, int b) {
+        if (a < 0 || b < 0) {
+            throw new IllegalArgumentException("contact ids must be non-negative: " + a + ", " + b);
+        }
+        localBuffer.get().add(((long) a << 32) | b);
+    }
+
+    /**
+     * 合并所有线程的接触并排序，清空线程缓冲区（检测阶段全部结束后在主线程调用）
+     * @return 接触数量
+     */
+    public int drain() {
+        count = 0;
+        synchronized (buffers) {
+            for (int i = 0; i < buffers.size(); i++) {
+                Buffer buffer = buffers.get(i);
+                if (buffer.size == 0) continue;
+                if (count + buffer.size > merged.length) {
+                    merged = Arrays.copyOf(merged, Math.max(count + buffer.size, merged.length * 2));
+                }
+                System.arraycopy(buffer.keys, 0, merged, count, buffer.size);
+                count += buffer.size;
+                buffer.size = 0;
+            }
+        }
+        Arrays.sort(merged, 0, count);
+        return count;
+    }
+
+    /**
+     * 排序后第 i 个接触的第一个编号
+     */
+    public int getA(int i) {
+        return (int) (merged[i] >>> 32);
+    }
+
+    /**
+     * 排序后第 i 个接触的第二个编号
+     */
+    public int getB(int i) {
+        return (int) merged[i];
+    }
+
+    /**
+     * 上一次 drain 得到的接触数量
+     */
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gameengine.core;
+
+/**
+ * 64位实体ID：低32位为实体编号，高32位为该编号的代数（编号每回收一次代数加1）
+ * 同一时刻存活的对象ID互不相同，编号复用后旧ID也不会与新对象混淆
+ */
+public final class EntityId {
+    /** 表示"没有实体"的ID */
+    public static final long NONE = -1L;
+
+    private EntityId() {}
+
+    /**
+     * 由实体编号和代数组合成ID
+     */
+    public static long of(int index, int generation) {
+        return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 取出实体编号
+     */
+    public static int index(long id) {
+        return (int) id;
+    }
+
+    /**
+     * 取出代数
+     */
+    public static int generation(long id) {
+        return (int) (id >>> 32);
+    }
+
+    /**
+     * 紧凑字符串形式（36进制），只在录像、调试等需要文本时使用
+     */
+    public static String toString(long id) {
+        return Long.toString(id, Character.MAX_RADIX);
+    }
+
+    /**
+     * 解析紧凑字符串形式，格式不正确时返回 NONE
+     */
+    public static long parse(String text) {
+        if (text == null || text.isEmpty()) return NONE;
+        try {
+            return Long.parseLong(text, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 实体世界：按原型（组件类型集合）组织所有实体的组件存储
+ * GameObject 只是实体句柄的外观，组件实际存放在原型的列中
+ * 结构性修改（创建/销毁实体、添加组件）只能在主线程进行
+ */
+public class EntityWorld {
+    private static EntityWorld instance;
+
+    private final Map<BitSet, Archetype> archetypes;         // 签名 -> 原型
+    private final List<Archetype> archetypeList;             // 所有原型（创建顺序）
+    private final Map<BitSet, List<Archetype>> queryCache;   // 查询签名 -> 匹配的原型
+    private final Archetype emptyArchetype;                  // 没有任何组件的实体所在原型
+
+    private Archetype[] entityArchetype;    // 实体 -> 所在原型，null表示已销毁
+    private int[] entityRow;                // 实体 -> 在原型中的行号
+    private GameObject[] entityObjects;     // 实体 -> 外观对象
+    private int[] generations;              // 实体编号 -> 当前代数（每次回收加1）
+    private int[] freeEntities;             // 可复用的实体编号
+    private int freeCount;
+    private int nextEntity;
+    private int liveCount;
+
+    private EntityWorld() {
+        this.archetypes = new HashMap<>();
+        this.archetypeList = new ArrayList<>();
+        this.queryCache = new HashMap<>();
+        this.entityArchetype = new Archetype[256];
+        this.entityRow = new int[256];
+        this.entityObjects = new GameObject[256];
+        this.generations = new int[256];
+        this.freeEntities = new int[64];
+        this.emptyArchetype = getOrCreateArchetype(new BitSet());
+    }
+
+    public static EntityWorld getInstance() {
+        if (instance == null) {
+            instance = new EntityWorld();
+        }
+        return instance;
+    }
+
+    /**
+     * 创建实体，返回实体编号
+     */
+    public int createEntity(GameObject gameObject) {
+        int entity = freeCount > 0 ? freeEntities[--freeCount] : nextEntity++;
+        if (entity >= entityArchetype.length) {
+            int newCapacity = entityArchetype.length * 2;
+            entityArchetype = Arrays.copyOf(entityArchetype, newCapacity);
+            entityRow = Arrays.copyOf(entityRow, newCapacity);
+            entityObjects = Arrays.copyOf(entityObjects, newCapacity);
+            generations = Arrays.copyOf(generations, newCapacity);
+        }
+        entityArchetype[entity] = emptyArchetype;
+        entityRow[entity] = emptyArchetype.addRow(entity);
+        entityObjects[entity] = gameObject;
+        liveCount++;
+        return entity;
+    }
+
+    /**
+     * 销毁实体，释放其所有组件槽位，编号之后会被复用
+     */
+    public void destroyEntity(int entity) {
+        if (!isAlive(entity)) return;
+        removeFromArchetype(entity);
+        entityArchetype[entity] = null;
+        entityObjects[entity] = null;
+        generations[entity]++;
+        if (freeCount == freeEntities.length) {
+            freeEntities = Arrays.copyOf(freeEntities, freeCount * 2);
+        }
+        freeEntities[freeCount++] = entity;
+        liveCount--;
+    }
+
+    /**
+     * 为实体添加组件：迁移到包含该组件类型的原型
+     * 同一类型已存在组件时保留先添加的那个（与按类型查找的语义一致）
+     */
+    public void addComponent(int entity, Component<?> component) {
+        if (!isAlive(entity)) return;
+        Archetype from = entityArchetype[entity];
+        int row = entityRow[entity];
+        int typeId = ComponentRegistry.getTypeId(component.getClass());
+        int[] hierarchy = ComponentRegistry.getHierarchyIds(component.getClass());
+
+        Archetype to = from.getAddEdge(typeId);
+        if (to == null) {
+            BitSet signature = (BitSet) from.getSignature().clone();
+            for (int id : hierarchy) {
+                signature.set(id);
+            }
+            to = getOrCreateArchetype(signature);
+            from.setAddEdge(typeId, to);
+        }
+
+        if (to == from) {
+            // 类型集合不变：只填补空缺的父类型槽位
+            for (int id : hierarchy) {
+                if (from.get(row, id) == null) {
+                    from.set(row, id, component);
+                }
+            }
+            return;
+        }
+
+        int newRow = to.addRow(entity);
+        for (int id : from.getTypeIds()) {
+            to.set(newRow, id, from.get(row, id));
+        }
+        for (int id : hierarchy) {
+            if (to.get(newRow, id) == null) {
+                to.set(newRow, id, component);
+            }
+        }
+        removeFromArchetype(entity);
+        entityArchetype[entity] = to;
+        entityRow[entity] = newRow;
+    }
+
+    /**
+     * 按类型ID获取实体的组件
+     */
+    public Component<?> getComponent(int entity, int typeId) {
+        Archetype archetype = entityArchetype[entity];
+        return archetype == null ? null : archetype.get(entityRow[entity], typeId);
+    }
+
+    /**
+     * 获取包含全部指定组件类型的原型（返回的列表随新原型的创建自动更新）
+     * 遍历原型列期间不要创建/销毁实体或添加组件
+     */
+    public List<Archetype> getArchetypes(Class<?>... componentTypes) {
+        BitSet required = new BitSet();
+        for (Class<?> type : componentTypes) {
+            required.set(ComponentRegistry.getTypeId(type));
+        }
+        List<Archetype> matches = queryCache.get(required);
+        if (matches == null) {
+            matches = new ArrayList<>();
+            for (Archetype archetype : archetypeList) {
+                if (matchesQuery(archetype, required)) {
+                    matches.add(archetype);
+                }
+            }
+            queryCache.put(required, matches);
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * 获取实体当前的64位ID（编号 + 代数，见 EntityId）
+     */
+    public long getEntityId(int entity) {
+        return EntityId.of(entity, generations[entity]);
+    }
+
+    /**
+     * 按64位ID查找对象，ID已失效（实体被销毁或编号已复用）时返回 null
+     */
+    public GameObject getGameObject(long id) {
+        int entity = EntityId.index(id);
+        if (!isAlive(entity) || generations[entity] != EntityId.generation(id)) return null;
+        return entityObjects[entity];
+    }
+
+    public GameObject getGameObject(int entity) {
+        return isAlive(entity) ? entityObjects[entity] : null;
+    }
+
+    public boolean isAlive(int entity) {
+        return entity >= 0 && entity < entityArchetype.length && entityArchetype[entity] != null;
+    }
+
+    /**
+     * 当前存活的实体数量
+     */
+    public int getEntityCount() {
+        return liveCount;
+    }
+
+    private void removeFromArchetype(int entity) {
+        Archetype archetype = entityArchetype[entity];
+        int moved = archetype.removeRow(entityRow[entity]);
+        if (moved >= 0) {
+            entityRow[moved] = entityRow[entity];
+        }
+    }
+
+    private Archetype getOrCreateArchetype(BitSet signature) {
+        Archetype archetype = archetypes.get(signature);
+        if (archetype == null) {
+            archetype = new Archetype(signature);
+            archetypes.put(archetype.getSignature(), archetype);
+            archetypeList.add(archetype);
+            // 追加到已缓存的匹配查询中
+            for (Map.Entry<BitSet, List<Archetype>> entry : queryCache.entrySet()) {
+                if (matchesQuery(archetype, entry.getKey())) {
+                    entry.getValue().add(archetype);
+                }
+            }
+        }
+        return archetype;
+    }
+
+    private static boolean matchesQuery(Archetype archetype, BitSet required) {
+        for (int id = required.nextSetBit(0); id >= 0; id = required.nextSetBit(id + 1)) {
+            if (!archetype.hasType(id)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.gameengine.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 帧节拍器，按目标帧率精确控制主循环节奏
+ * 先休眠大部分剩余预算，最后一小段用park/自旋补齐，避免Thread.sleep的毫秒级过睡
+ */
+public class FramePacer {
+    // 最后这段时间不再sleep，改为park/自旋（纳秒）
+    private static final long SPIN_THRESHOLD_NANOS = 2_000_000L;
+    // 低于该时间直接自旋，park的唤醒误差通常在几十微秒级（纳秒）
+    private static final long PARK_THRESHOLD_NANOS = 200_000L;
+
+    private float targetFPS;            // 目标帧率（<=0表示不限帧）
+    private long frameDurationNanos;    // 每帧时间预算
+    private long nextDeadline;          // 下一帧截止时间
+    private long frameCount;            // 已节拍的帧数
+    private long missedDeadlines;       // 超出预算的帧数
+    private long lastOverrunNanos;      // 最近一次超出预算的时长
+
+    public FramePacer(float targetFPS) {
+        setTargetFPS(targetFPS);
+        reset();
+    }
+
+    /**
+     * 设置目标帧率，<=0 表示不限帧（基准测试模式）
+     */
+    public void setTargetFPS(float fps) {
+        this.targetFPS = fps;
+        this.frameDurationNanos = fps > 0 ? (long) (1_000_000_000L / fps) : 0L;
+        this.nextDeadline = System.nanoTime() + frameDurationNanos;
+    }
+
+    /**
+     * 重置截止时间和统计数据（主循环开始前调用）
+     */
+    public void reset() {
+        this.nextDeadline = System.nanoTime() + frameDurationNanos;
+        this.frameCount = 0;
+        this.missedDeadlines = 0;
+        this.lastOverrunNanos = 0;
+    }
+
+    /**
+     * 等待到本帧截止时间，每帧结束时调用一次
+     */
+    public void sync() {
+        frameCount++;
+        if (isUnlimited()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long remaining = nextDeadline - now;
+        if (remaining < 0) {
+            // 超出预算：记录并以当前时间为基准重新对齐，不追赶已错过的帧
+            missedDeadlines++;
+            lastOverrunNanos = -remaining;
+            nextDeadline = now + frameDurationNanos;
+            return;
+        }
+
+        // 1. 粗粒度休眠，留出最后一段给精确等待
+        if (remaining > SPIN_THRESHOLD_NANOS) {
+            long sleepNanos = remaining - SPIN_THRESHOLD_NANOS;
+            try {
+                Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        // 2. 短时park，再自旋到截止时间
+        while ((remaining = nextDeadline - System.nanoTime()) > 0) {
+            if (remaining > PARK_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        nextDeadline += frameDurationNanos;
+    }
+
+    // Getters
+
+    public boolean isUnlimited() {
+        return frameDurationNanos <= 0;
+    }
+
+    public float getTargetFPS() {
+        return targetFPS;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * 获取最近一次超出预算的时长（毫秒）
+     */
+    public float getLastOverrunMillis() {
+        return lastOverrunNanos / 1_000_000.0f;
+    }
+}
@@ -1,14 +1,19 @@
 package com.gameengine.core;
 
-import com.gameengine.graphics.GPURenderer;
+import com.gameengine.graphics.RenderBackend;
+import com.gameengine.graphics.RendererFactory;
 import com.gameengine.input.InputManager;
+import com.gameengine.profiling.FrameEvent;
+import com.gameengine.profiling.FrameProfiler;
 import com.gameengine.scene.Scene;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.recording.RecordingService;
 import com.gameengine.recording.RecordingConfig;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 
 /**
@@ -17,6 +22,8 @@ import java.util.Date;
 public class GameEngine {
     // 单例实例（静态私有）
     private static GameEngine instance;
+    // 单帧真实时间上限（秒），超出部分直接丢弃
+    private static final float MAX_FRAME_TIME = 0.25f;
 
     private IRenderer renderer;              // 渲染器
     private InputManager inputManager;      // 输入管理器
@@ -25,18 +32,42 @@ public class GameEngine {
     private float targetFPS;                // 目标帧率
     private float deltaTime;                // 时间间隔
     private long lastTime;                  // 上一帧时间
+    private boolean fixedTimestep;          // 是否启用固定步长模拟
+    private float simulationRate;           // 模拟频率（每秒步数）
+    private int maxCatchUpSteps;            // 单帧最多追赶的模拟步数
+    private float accumulator;              // 固定步长时间累积器
+    private float renderAlpha;              // 渲染插值系数（0~1）
+    private final FramePacer framePacer;    // 帧节拍器
+    private final FrameProfiler profiler;   // 帧性能分析器
+    private final FrameEvent frameEvent = new FrameEvent(); // 复用的JFR帧事件（主循环每帧一次）
+    private final JobSystem jobSystem;      // 引擎级任务系统（所有并行工作共享）
+    private final boolean headless;         // 无窗口模式（不创建OpenGL上下文、不处理窗口事件）
+    private long maxFrames;                 // 运行的最大帧数（<=0表示不限制）
+    private final List<Scene> retiredScenes; // 已被切换掉、等待释放的场景
     @SuppressWarnings("unused")
     private String title;                   // 窗口标题
     private RecordingService recordingService; // 录像服务
     
-    private GameEngine(int width, int height, String title) {
+    private GameEngine(int width, int height, String title, RenderBackend backend) {
         this.title = title;
-        this.renderer = new GPURenderer(width, height, title);
+        this.headless = backend == RenderBackend.HEADLESS;
+        this.renderer = RendererFactory.createRenderer(backend, width, height, title);
         this.inputManager = InputManager.getInstance();
         this.running = false;
-        this.targetFPS = 60.0f;
+        // 无窗口模式默认不限帧，尽快推进模拟
+        this.targetFPS = headless ? 0.0f : 60.0f;
         this.deltaTime = 0.0f;
         this.lastTime = System.nanoTime();
+        this.fixedTimestep = true;
+        this.simulationRate = 60.0f;
+        this.maxCatchUpSteps = 5;
+        this.accumulator = 0.0f;
+        this.renderAlpha = 1.0f;
+        this.framePacer = new FramePacer(targetFPS);
+        this.profiler = new FrameProfiler();
+        this.jobSystem = new JobSystem();
+        this.maxFrames = 0;
+        this.retiredScenes = new ArrayList<>();
         
         // 初始化录像服务
         initializeRecordingService(width, height);
@@ -119,48 +150,115 @@ public class GameEngine {
         }
         
         // 游戏主循环
+        lastTime = System.nanoTime();
+        accumulator = 0.0f;
+        framePacer.reset();
         while (running && !renderer.shouldClose()) {
-            long currentTime = System.nanoTime();
-            deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
-            lastTime = currentTime;
+            long frameStart = System.nanoTime();
+            frameEvent.begin();
+            profiler.begin(FrameProfiler.Phase.FRAME);
+            float frameTime = (frameStart - lastTime) / 1_000_000_000.0f;
+            lastTime = frameStart;
+            if (headless && framePacer.isUnlimited()) {
+                // 无窗口且不限帧：每帧推进恰好一个模拟步，与真实时间无关
+                frameTime = 1.0f / simulationRate;
+            }
             
-            // 限制deltaTime防止大跳跃
-            if (deltaTime > 0.1f) {
-                deltaTime = 0.1f;
+            profiler.begin(FrameProfiler.Phase.UPDATE);
+            int steps;
+            if (fixedTimestep) {
+                steps = stepFixed(frameTime);
+            } else {
+                // 限制deltaTime防止大跳跃
+                deltaTime = Math.min(frameTime, 0.1f);
+                update();
+                renderAlpha = 1.0f;
+                steps = 1;
             }
+            profiler.end(FrameProfiler.Phase.UPDATE);
             
-            update();
             render();
-            renderer.pollEvents();
+            present();
+            // 帧栅栏：本帧提交的异步任务（如录像序列化）必须在下一帧修改场景前完成
+            jobSystem.frameFence();
+            profiler.end(FrameProfiler.Phase.FRAME);
+            profiler.endFrame(); // 各阶段按帧记录一个样本（追赶帧的多个固定步合计）
+            frameEvent.end();
+            if (frameEvent.shouldCommit()) {
+                frameEvent.frame = framePacer.getFrameCount();
+                frameEvent.frameTime = frameTime;
+                frameEvent.deltaTime = deltaTime;
+                frameEvent.simulationSteps = steps;
+                frameEvent.commit();
+            }
             
             // 检查窗口是否关闭
             if (renderer.shouldClose()) {
                 running = false;
             }
             
-            // 简单的帧率控制
-            try {
-                Thread.sleep(16); // 约60FPS
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            // 帧率控制：等待到本帧截止时间
+            framePacer.sync();
+            
+            // 达到帧数上限时停止（批量模拟用）
+            if (maxFrames > 0 && framePacer.getFrameCount() >= maxFrames) {
+                running = false;
             }
         }
         
         cleanup();
     }
     
+    /**
+     * 固定步长推进模拟：累积真实时间，按固定间隔执行若干步更新，
+     * 剩余不足一步的时间换算为渲染插值系数
+     * @return 本帧实际执行的模拟步数
+     */
+    private int stepFixed(float frameTime) {
+        float step = 1.0f / simulationRate;
+        // 限制单帧时间，避免长时间卡顿后陷入追赶螺旋
+        if (frameTime > MAX_FRAME_TIME) {
+            frameTime = MAX_FRAME_TIME;
+        }
+        accumulator += frameTime;
+        
+        int steps = 0;
+        while (accumulator >= step && steps < maxCatchUpSteps && running) {
+            deltaTime = step;
+            update();
+            accumulator -= step;
+            steps++;
+        }
+        
+        // 追赶步数用尽仍有积压时丢弃整步，只保留不足一步的余量
+        if (accumulator >= step) {
+            accumulator %= step;
+        }
+        renderAlpha = accumulator / step;
+        return steps;
+    }
+    
     /**
      * 更新游戏逻辑
      */
     private void update() {
         // 更新场景
         if (currentScene != null) {
+            profiler.begin(FrameProfiler.Phase.SCENE_UPDATE);
             currentScene.update(deltaTime);
+            profiler.end(FrameProfiler.Phase.SCENE_UPDATE);
         }
         
         // 更新录像数据
         if (recordingService != null && recordingService.isRecording() && currentScene != null) {
+            profiler.begin(FrameProfiler.Phase.RECORDING);
             recordingService.update(deltaTime, currentScene, inputManager);
+            profiler.end(FrameProfiler.Phase.RECORDING);
+        }
+        
+        // F3 切换性能覆盖层
+        if (inputManager.isKeyJustPressed(InputManager.KEY_F3)) {
+            profiler.setOverlayVisible(!profiler.isOverlayVisible());
         }
         
         // 更新输入
@@ -171,18 +269,45 @@ public class GameEngine {
             running = false;
             // 注意：cleanup将在run方法结束时统一调用
         }
+        
+        // 释放本帧被切换掉的场景（不能在场景自身的update中途释放）
+        disposeRetiredScenes();
+    }
+    
+    private void disposeRetiredScenes() {
+        if (retiredScenes.isEmpty()) return;
+        for (Scene scene : retiredScenes) {
+            scene.dispose();
+        }
+        retiredScenes.clear();
     }
     
     /**
      * 渲染游戏
      */
     private void render() {
+        profiler.begin(FrameProfiler.Phase.RENDER);
         renderer.beginFrame();
-        // 渲染场景
+        // 渲染场景（传入插值系数）
         if (currentScene != null) {
-            currentScene.render();
+            currentScene.render(renderAlpha);
         }
+        profiler.end(FrameProfiler.Phase.RENDER);
+        
+        // 性能覆盖层绘制在场景之上
+        profiler.renderOverlay(renderer);
+    }
+    
+    /**
+     * 交换缓冲区并处理窗口事件
+     */
+    private void present() {
+        profiler.begin(FrameProfiler.Phase.SWAP);
         renderer.endFrame();
+        if (!headless) {
+            renderer.pollEvents();
+        }
+        profiler.end(FrameProfiler.Phase.SWAP);
     }
     
     /**
@@ -194,6 +319,9 @@ public class GameEngine {
             stopRecording();
         }
         
+        if (currentScene != null && currentScene != scene) {
+            retiredScenes.add(currentScene);
+        }
         this.currentScene = scene;
         if (scene != null) {
             scene.setEngine(this); 
@@ -241,11 +369,11 @@ public class GameEngine {
     }
     
     /**
-     * 设置目标帧率
+     * 设置目标帧率，<=0 表示不限帧（基准测试模式）
      */
     public void setTargetFPS(float fps) {
         this.targetFPS = fps;
-        // 简单帧率控制通过run方法中的sleep实现，无需额外的timer
+        framePacer.setTargetFPS(fps);
     }
     
     /**
@@ -254,14 +382,104 @@ public class GameEngine {
     public float getTargetFPS() {
         return targetFPS;
     }
+    
+    /**
+     * 是否为无窗口模式
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    /**
+     * 设置run()运行的最大帧数，达到后自动停止，<=0表示不限制
+     */
+    public void setMaxFrames(long maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+    
+    public long getMaxFrames() {
+        return maxFrames;
+    }
+    
+    /**
+     * 获取帧性能分析器
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * 获取引擎级任务系统
+     */
+    public JobSystem getJobSystem() {
+        return jobSystem;
+    }
+    
+    /**
+     * 获取帧节拍器（可查询超出预算的帧数等统计）
+     */
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
+    /**
+     * 启用/禁用固定步长模拟（禁用时使用可变deltaTime）
+     */
+    public void setFixedTimestep(boolean fixedTimestep) {
+        this.fixedTimestep = fixedTimestep;
+        this.accumulator = 0.0f;
+    }
+    
+    public boolean isFixedTimestep() {
+        return fixedTimestep;
+    }
+    
+    /**
+     * 设置模拟频率（每秒模拟步数）
+     */
+    public void setSimulationRate(float hz) {
+        if (hz <= 0) {
+            throw new IllegalArgumentException("模拟频率必须大于0: " + hz);
+        }
+        this.simulationRate = hz;
+    }
+    
+    public float getSimulationRate() {
+        return simulationRate;
+    }
+    
+    /**
+     * 设置单帧最多追赶的模拟步数
+     */
+    public void setMaxCatchUpSteps(int steps) {
+        this.maxCatchUpSteps = Math.max(1, steps);
+    }
+    
+    public int getMaxCatchUpSteps() {
+        return maxCatchUpSteps;
+    }
+    
+    /**
+     * 获取当前帧的渲染插值系数
+     */
+    public float getRenderAlpha() {
+        return renderAlpha;
+    }
 
     /**
      * 单例获取方法（确保全局唯一实例）
      * 首次调用时需传入初始化参数，后续调用可忽略参数
      */
     public static synchronized GameEngine getInstance(int width, int height, String title) {
+        return getInstance(width, height, title, RenderBackend.GPU);
+    }
+
+    /**
+     * 指定渲染后端的单例获取方法，RenderBackend.HEADLESS 创建无窗口引擎
+     */
+    public static synchronized GameEngine getInstance(int width, int height, String title, RenderBackend backend) {
         if (instance == null) {
-            instance = new GameEngine(width, height, title);
+            instance = new GameEngine(width, height, title, backend);
         }
         return instance;
     }
@@ -287,12 +505,15 @@ public class GameEngine {
             stopRecording();
         }
         
+        disposeRetiredScenes();
         if (currentScene != null) {
-            currentScene.clear();
+            currentScene.dispose();
         }
         if (renderer != null) {
             renderer.cleanup();
         }
+        // 场景和录像都已释放，最后关闭工作线程
+        jobSystem.shutdown();
     }
     
     /**
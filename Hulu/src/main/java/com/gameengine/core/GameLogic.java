@@ -6,18 +6,14 @@ import com.gameengine.components.PhysicsComponent;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
 import com.gameengine.physics.AABB;
+import com.gameengine.physics.CollisionMatrix;
 import com.gameengine.physics.PhysicsWorld;
+import com.gameengine.profiling.CollisionCheckEvent;
 import com.gameengine.scene.Scene;
 
 import java.util.ArrayList;
 import java.util.List;
 
-// 多线程相关
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-
 // 渲染相关
 import com.gameengine.graphics.IRenderer;
 
@@ -25,19 +21,69 @@ import com.gameengine.graphics.IRenderer;
  * 游戏逻辑类，处理具体的游戏规则
  */
 public class GameLogic {
+    private static final int BULLET_POOL_CAPACITY = 256; // 最多缓存的空闲子弹数量
+    private static final int COLLISION_GRAIN = 32;       // 并行碰撞检测时每个任务处理的对象数
+    
     private Scene scene;
     private InputManager inputManager;
     private PhysicsWorld physicsWorld; // 新增物理世界
     
-    private ExecutorService aiThreadPool; // 敌人AI线程池
+    private final JobSystem jobSystem; // 引擎的任务系统，场景未挂到引擎时为null（串行检测）
+    private final ContactCollector contacts = new ContactCollector(); // 并行检测阶段收集的接触对
+    private final Vector2 inputDirection = new Vector2(); // 复用的输入方向向量
+    private final ObjectPool<Bullet> bulletPool; // 子弹对象池
+    private final List<GameObject> characterBuffer = new ArrayList<>(); // 复用的角色列表
+    private final CollisionCheckEvent checkEvent = new CollisionCheckEvent(); // 复用的JFR事件
+    // 检测阶段的任务预先绑定，输入通过下面的字段传入，每步不为捕获变量的 lambda 分配对象
+    private final JobSystem.RangeJob enemyContactJob = this::detectEnemyContacts;
+    private final JobSystem.RangeJob bulletContactJob = this::detectBulletContacts;
+    private GameObject checkPlayer;          // 本次检测的玩家
+    private List<GameObject> checkEnemies;   // 本次检测的敌人
+    private List<GameObject> checkBullets;   // 本次检测的子弹
     
     public GameLogic(Scene scene) {
         this.scene = scene;
         this.inputManager = InputManager.getInstance();
         this.physicsWorld = new PhysicsWorld(scene); // 初始化物理世界
-        // 创建物理执行器，线程数为 (CPU 可用核心数 - 1)，但至少2个线程
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        this.aiThreadPool = Executors.newFixedThreadPool(threadCount);
+        // 碰撞检测使用引擎共享的任务系统，不再为每个场景单独创建线程池
+        GameEngine engine = scene.getEngine();
+        this.jobSystem = engine != null ? engine.getJobSystem() : null;
+        // 子弹回收时从物理世界移除并重置组件，池满时直接销毁
+        this.bulletPool = new ObjectPool<>(
+            this::createPooledBullet,
+            bullet -> {
+                physicsWorld.unregisterPhysicsBody(bullet);
+                bullet.resetComponents();
+            },
+            Bullet::destroy,
+            BULLET_POOL_CAPACITY
+        );
+    }
+    
+    private Bullet createPooledBullet() {
+        Bullet bullet = new Bullet("Bullet");
+        bullet.setPool(bulletPool);
+        return bullet;
+    }
+    
+    /**
+     * 从对象池取出子弹并发射，加入场景并注册到物理世界
+     * @param dirX 发射方向X（无需归一化）
+     * @param dirY 发射方向Y
+     */
+    public Bullet spawnBullet(String name, GameObject shooter, float dirX, float dirY, float x, float y) {
+        Bullet bullet = bulletPool.acquire();
+        bullet.launch(name, shooter, dirX, dirY, x, y);
+        scene.addGameObject(bullet);
+        physicsWorld.registerPhysicsBody(bullet, bullet.getCollider(), CollisionMatrix.BULLET);
+        return bullet;
+    }
+    
+    /**
+     * 释放资源：销毁池中空闲的子弹（场景被释放时调用）
+     */
+    public void dispose() {
+        bulletPool.clear();
     }
     
     /**
@@ -54,7 +100,8 @@ public class GameLogic {
         
         if (transform == null || physics == null) return;
         
-        Vector2 movement = new Vector2();
+        Vector2 movement = inputDirection;
+        movement.set(0, 0);
         
         if (inputManager.isKeyPressed(87) || inputManager.isKeyPressed(38)) { // W或上箭头
             movement.y -= 1;
@@ -70,17 +117,14 @@ public class GameLogic {
         }
         
         if (movement.magnitude() > 0) {
-            movement = movement.normalize().multiply(200);
-            physics.setVelocity(movement);
+            movement.normalizeLocal().scaleLocal(200);
+            physics.setVelocity(movement.x, movement.y);
         }
         
         // 边界检查
-        Vector2 pos = transform.getPosition();
-        if (pos.x < 0) pos.x = 0;
-        if (pos.y < 0) pos.y = 0;
-        if (pos.x > 800 - 20) pos.x = 800 - 20;
-        if (pos.y > 600 - 20) pos.y = 600 - 20;
-        transform.setPosition(pos);
+        float x = Math.max(0, Math.min(transform.getX(), 800 - 20));
+        float y = Math.max(0, Math.min(transform.getY(), 600 - 20));
+        transform.setPosition(x, y);
     }
     
     /**
@@ -94,17 +138,17 @@ public class GameLogic {
             physicsWorld.registerPhysicsBody(
                 player,
                 new AABB(player.getComponent(TransformComponent.class).getPosition(), new Vector2(20, 20)),
-                0 // 玩家层
+                CollisionMatrix.PLAYER
             );
         }
 
         // 注册敌人
-        for (GameObject enemy : scene.getGameObjects()) {
+        for (GameObject enemy : scene.getGameObjectView()) {
             if (enemy.getName().equals("Enemy")) {
                 physicsWorld.registerPhysicsBody(
                     enemy,
                     new AABB(enemy.getComponent(TransformComponent.class).getPosition(), new Vector2(20, 20)),
-                    1 // 敌人层
+                    CollisionMatrix.ENEMY
                 );
             }
         }
@@ -118,73 +162,58 @@ public class GameLogic {
     }
     
     /**
-     * 检查碰撞
+     * 检查碰撞：分两阶段进行
+     * 检测阶段并行执行，只读取位置并把重叠的对象对写入各线程的接触缓冲区；
+     * 结算阶段在主线程按 (子弹/敌人下标, 角色下标) 顺序依次处理，结果与线程调度无关，回放可复现
      */
     public void checkCollisions() {
+        CollisionCheckEvent event = checkEvent;
+        event.enemies = 0;
+        event.bullets = 0;
+        event.characters = 0;
+        event.pairsTested = 0;
+        event.begin();
         // 获取玩家和所有敌人
         List<GameObject> players = scene.findGameObjectsByName("Player"); 
-        if (players.isEmpty()) return;
-        GameObject player = players.get(0);
-        List<GameObject> enemies = new ArrayList<>();
-        for (GameObject obj : scene.getGameObjects()) {
-            if (obj.getName().equals("Enemy")) {
-                enemies.add(obj);
-            }
-        }
-        
-        if (enemies.isEmpty()) {
-            checkBulletCollisions();
+        if (players.isEmpty()) {
+            commitCollisionEvent(event); // 没有玩家也要提交，否则这一步的检测样本会丢失
             return;
         }
+        GameObject player = players.get(0);
+        List<GameObject> enemies = scene.findGameObjectsByName("Enemy");
         
-        // 多线程检查玩家与敌人的碰撞
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        int batchSize = Math.max(1, enemies.size() / threadCount);
-        List<Future<Boolean>> futures = new ArrayList<>();
-        
-        // 将敌人列表分批处理
-        for (int i = 0; i < enemies.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, enemies.size());
-            final List<GameObject> enemyBatch = enemies.subList(start, end);
-            
-            Future<Boolean> future = aiThreadPool.submit(() -> {
-                for (GameObject enemy : enemyBatch) {
-                    if (checkPlayerEnemyCollision(player, enemy)) {
-                        return true; // 发现碰撞
-                    }
-                }
-                return false; // 未发现碰撞
-            });
-            futures.add(future);
-        }
+        event.enemies = enemies.size();
         
-        // 等待所有任务完成，检查是否有碰撞
-        for (Future<Boolean> future : futures) {
-            try {
-                if (future.get(100, TimeUnit.MILLISECONDS)) {
-                    // 发现碰撞，取消剩余任务
-                    for (Future<Boolean> f : futures) {
-                        f.cancel(true);
-                    }
-                    break;
-                }
-            } catch (Exception e) {
-                // 忽略异常，继续处理
+        if (!enemies.isEmpty()) {
+            // 检测玩家与敌人的重叠
+            checkPlayer = player;
+            checkEnemies = enemies;
+            parallelFor(enemies.size(), enemyContactJob);
+            checkPlayer = null;
+            checkEnemies = null;
+            // 结算：与任意敌人相撞都把玩家送回中心，只需处理一次
+            if (contacts.drain() > 0) {
+                resetPlayer(player);
             }
         }
 
-        // 检查子弹与角色的碰撞
-        checkBulletCollisions();
+        // 检查子弹与角色的碰撞（使用玩家结算后的位置）
+        checkBulletCollisions(event);
+        commitCollisionEvent(event);
+    }
+
+    private void commitCollisionEvent(CollisionCheckEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.pairsTested += event.enemies; // 玩家与每个敌人各一次
+            event.commit();
+        }
     }
 
     /**
-     * 检查玩家与单个敌人的碰撞
-     * @param player 玩家对象
-     * @param enemy 敌人对象
-     * @return 是否发生碰撞
+     * 玩家与单个敌人是否重叠（检测阶段调用，不修改任何状态）
      */
-    private boolean checkPlayerEnemyCollision(GameObject player, GameObject enemy) {
+    private boolean overlapsEnemy(GameObject player, GameObject enemy) {
         TransformComponent playerTransform = player.getComponent(TransformComponent.class);
         TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
         
@@ -192,90 +221,104 @@ public class GameLogic {
             return false;
         }
         
-        AABB playerAabb = new AABB(
-            playerTransform.getPosition(), 
-            new Vector2(20, 20) // 玩家碰撞体大小
-        );
-        
-        AABB enemyAabb = new AABB(
-            enemyTransform.getPosition(), 
-            new Vector2(20, 20) // 敌人碰撞体大小
-        );
-        
-        if (playerAabb.collidesWith(enemyAabb)) {
-            // 碰撞发生，重置玩家位置到中心
-            playerTransform.setPosition(new Vector2(400, 300));
-            // 重置玩家速度
-            PhysicsComponent playerPhysics = player.getComponent(PhysicsComponent.class);
-            if (playerPhysics != null) {
-                playerPhysics.setVelocity(0, 0);
-            }
-            return true;
+        // 玩家与敌人碰撞体大小均为20x20，直接比较坐标，不为每对物体分配AABB
+        return AABB.overlaps(playerTransform.getX(), playerTransform.getY(), 20, 20,
+                             enemyTransform.getX(), enemyTransform.getY(), 20, 20);
+    }
+
+    // 玩家撞到敌人：重置位置到中心并清除速度
+    private void resetPlayer(GameObject player) {
+        TransformComponent playerTransform = player.getComponent(TransformComponent.class);
+        playerTransform.setPosition(400, 300);
+        PhysicsComponent playerPhysics = player.getComponent(PhysicsComponent.class);
+        if (playerPhysics != null) {
+            playerPhysics.setVelocity(0, 0);
         }
-        
-        return false;
     }
 
     /**
-     * 检查子弹与角色的碰撞（多线程版本）
+     * 检查子弹与角色的碰撞（并行检测，主线程结算）
      */
-    private void checkBulletCollisions() {
+    private void checkBulletCollisions(CollisionCheckEvent event) {
         List<GameObject> bullets = scene.findGameObjectsByNameContaining("Bullet");
-        List<GameObject> characters = new ArrayList<>();
-        characters.addAll(scene.findGameObjectsByName("Player"));
-        characters.addAll(scene.findGameObjectsByName("Enemy"));
+        List<GameObject> characters = characterBuffer;
+        characters.clear();
+        appendAll(characters, scene.findGameObjectsByName("Player"));
+        appendAll(characters, scene.findGameObjectsByName("Enemy"));
+        event.bullets = bullets.size();
+        event.characters = characters.size();
     
         if (bullets.isEmpty() || characters.isEmpty()) {
             return;
         }
+        event.pairsTested = bullets.size() * characters.size();
         
-        // 多线程检查子弹与角色的碰撞
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        int batchSize = Math.max(1, bullets.size() / threadCount);
-        List<Future<Boolean>> futures = new ArrayList<>();
+        // 检测阶段：按子弹分块并行，记录每颗子弹重叠的所有角色
+        checkBullets = bullets;
+        parallelFor(bullets.size(), bulletContactJob);
+        checkBullets = null;
         
-        // 将子弹列表分批处理
-        for (int i = 0; i < bullets.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, bullets.size());
-            final List<GameObject> bulletBatch = bullets.subList(start, end);
-            final List<GameObject> characterList = new ArrayList<>(characters); // 复制列表避免并发修改
+        // 结算阶段：按子弹顺序、同一子弹按角色顺序处理；
+        // 每颗子弹只命中一次，已被前面的子弹击杀的角色不再被命中
+        int count = contacts.drain();
+        for (int k = 0; k < count; k++) {
+            Bullet bullet = (Bullet) bullets.get(contacts.getA(k));
+            GameObject character = characters.get(contacts.getB(k));
+            if (bullet.isActive() && character.isActive()) {
+                applyBulletHit(bullet, character);
+            }
+        }
+    }
+
+    // 检测任务：玩家与 [from, to) 范围内的敌人
+    private void detectEnemyContacts(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (overlapsEnemy(checkPlayer, checkEnemies.get(i))) {
+                contacts.add(i, 0);
+            }
+        }
+    }
+
+    // 检测任务：[from, to) 范围内的子弹与所有角色
+    private void detectBulletContacts(int from, int to) {
+        List<GameObject> characters = characterBuffer;
+        for (int i = from; i < to; i++) {
+            GameObject bulletObj = checkBullets.get(i);
+            if (!(bulletObj instanceof Bullet)) continue;
+            Bullet bullet = (Bullet) bulletObj;
             
-            Future<Boolean> future = aiThreadPool.submit(() -> {
-                for (GameObject bulletObj : bulletBatch) {
-                    if (!(bulletObj instanceof Bullet)) continue;
-                    Bullet bullet = (Bullet) bulletObj;
-                    
-                    for (GameObject character : characterList) {
-                        if (checkBulletCharacterCollision(bullet, character)) {
-                            return true; // 发现碰撞
-                        }
-                    }
+            for (int j = 0; j < characters.size(); j++) {
+                if (overlapsCharacter(bullet, characters.get(j))) {
+                    contacts.add(i, j);
                 }
-                return false; // 未发现碰撞
-            });
-            futures.add(future);
-        }
-        
-        // 等待所有任务完成
-        for (Future<Boolean> future : futures) {
-            try {
-                future.get(100, TimeUnit.MILLISECONDS);
-            } catch (Exception e) {
-                // 忽略异常，继续处理
             }
         }
     }
 
+    // 有任务系统时分块并行执行，否则在当前线程执行
+    private void parallelFor(int count, JobSystem.RangeJob job) {
+        if (jobSystem != null) {
+            jobSystem.parallelFor(count, COLLISION_GRAIN, job);
+        } else {
+            job.run(0, count);
+        }
+    }
+
+    // 按下标追加（避免 addAll 为视图创建临时数组）
+    private static void appendAll(List<GameObject> target, List<GameObject> source) {
+        for (int i = 0; i < source.size(); i++) {
+            target.add(source.get(i));
+        }
+    }
+
     /**
-     * 检查子弹与单个角色的碰撞
+     * 子弹与单个角色是否重叠（检测阶段调用，不修改任何状态）
      * @param bullet 子弹对象
      * @param character 角色对象
-     * @return 是否发生碰撞
      */
-    private boolean checkBulletCharacterCollision(Bullet bullet, GameObject character) {
-        // 跳过发射者自己
-        if (character == bullet.getShooter()) {
+    private boolean overlapsCharacter(Bullet bullet, GameObject character) {
+        // 跳过发射者自己，以及已失效的子弹/已死亡的角色
+        if (character == bullet.getShooter() || !bullet.isActive() || !character.isActive()) {
             return false;
         }
         
@@ -285,46 +328,39 @@ public class GameLogic {
             return false;
         }
         
-        AABB bulletAabb = new AABB(
-            bulletTransform.getPosition(), 
-            new Vector2(8, 8)
-        );
-        
         // 检查碰撞
         TransformComponent charTransform = character.getComponent(TransformComponent.class);
         if (charTransform == null) {
             return false;
         }
         
-        AABB charAabb = new AABB(
-            charTransform.getPosition(), 
-            new Vector2(20, 20)
-        );
+        // 子弹8x8，角色20x20
+        return AABB.overlaps(bulletTransform.getX(), bulletTransform.getY(), 8, 8,
+                             charTransform.getX(), charTransform.getY(), 20, 20);
+    }
+
+    /**
+     * 结算一次子弹命中（主线程调用）
+     */
+    private void applyBulletHit(Bullet bullet, GameObject character) {
+        // 子弹失效，由场景下一步移除并归还对象池
+        bullet.setActive(false);
         
-        if (bulletAabb.collidesWith(charAabb)) {
-            // 销毁子弹
-            bullet.destroy();
-            
-            // 如果是玩家碰到子弹，设置游戏结束状态但不销毁玩家
-            if (character.getName().equals("Player")) {
-                System.out.println("玩家确实碰到子弹了！");
-                gameOver();
-                // 停止玩家移动
-                PhysicsComponent playerPhysics = character.getComponent(PhysicsComponent.class);
-                if (playerPhysics != null) {
-                    playerPhysics.setVelocity(0, 0);
-                }
-            } else {
-                // 敌人死亡
-                character.destroy();
-                System.out.println("敌人确实碰到子弹了！");
-                // 敌人死亡，增加分数等逻辑 
+        // 如果是玩家碰到子弹，设置游戏结束状态但不销毁玩家
+        if (character.getName().equals("Player")) {
+            System.out.println("玩家确实碰到子弹了！");
+            gameOver();
+            // 停止玩家移动
+            PhysicsComponent playerPhysics = character.getComponent(PhysicsComponent.class);
+            if (playerPhysics != null) {
+                playerPhysics.setVelocity(0, 0);
             }
-            
-            return true;
+        } else {
+            // 敌人死亡（只标记，由场景销毁）
+            character.setActive(false);
+            System.out.println("敌人确实碰到子弹了！");
+            // 敌人死亡，增加分数等逻辑 
         }
-        
-        return false;
     }
 
     private boolean gameOverState = false;
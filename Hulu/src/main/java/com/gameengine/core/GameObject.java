@@ -7,26 +7,46 @@ import java.util.*;
 
 /**
  * 游戏对象基类，使用泛型组件系统
+ * 组件按原型存放在 EntityWorld 中，GameObject 是实体句柄的外观
+ * 实体在对象第一次加入场景时才分配：从未加入场景的对象不占用实体槽位，丢弃后直接被回收
  */
 public class GameObject {
+    // 类是否重写了 update（重写了的对象在并行更新模式下只能串行更新）
+    private static final ClassValue<Boolean> OVERRIDES_UPDATE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("update", float.class).getDeclaringClass() != GameObject.class;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
+    
     protected boolean active;
     protected String name;
-    protected final List<Component<?>> components;
+    private long tags;          // 标签位掩码（第n位表示标签n，0~63）
+    protected final List<Component<?>> components; // 按添加顺序保存，用于更新和渲染
+    private int entity = -1;    // 在 EntityWorld 中的实体编号，-1表示尚未加入过场景
+    private boolean destroyed;
     private Scene currentScene; // 新增：存储所属场景
-    private final String uniqueId; // 唯一标识符，用于录像功能区分对象
+    private int sceneIndex = -1; // 在所属场景对象数组中的下标，-1表示不在场景中
+    private int phaseMask = -1;  // 组件所属更新阶段的位掩码缓存（-1表示需重新计算，UNSAFE_PHASE位表示不能并行）
+    private static final int UNSAFE_PHASE = 1 << 31;
+    private UpdatePhase[] componentPhases; // 与 components 一一对应的更新阶段缓存
+    private long id = EntityId.NONE; // 64位实体ID（编号 + 代数），用于录像功能区分对象
     
     public GameObject() {
         this.active = true;
         this.name = "GameObject";
         this.components = new ArrayList<>();
+        this.destroyed = false;
         this.currentScene = null; // 初始化场景为null
-        this.uniqueId = UUID.randomUUID().toString(); // 生成唯一标识符
     }
     
     public GameObject(String name) {
         this();
         this.name = name;
-        // 保留父类生成的唯一标识符
     }
     
     /**
@@ -54,12 +74,59 @@ public class GameObject {
      * 销毁游戏对象
      */
     public void destroy() {
+        // 并行更新阶段内的销毁推迟到场景的提交点执行
+        if (currentScene != null && currentScene.isInParallelPhase()) {
+            this.active = false;
+            currentScene.deferStructuralChange(this::destroy);
+            return;
+        }
         this.active = false;
         // 销毁所有组件
         for (Component<?> component : components) {
             component.destroy();
         }
         components.clear();
+        phaseMask = -1;
+        // 释放实体（组件存储）
+        if (!destroyed) {
+            destroyed = true;
+            if (entity >= 0) {
+                EntityWorld.getInstance().destroyEntity(entity);
+            }
+        }
+    }
+    
+    /**
+     * 对象加入场景时由场景调用：第一次调用时分配实体，把已添加的组件按添加顺序存入实体存储
+     * 已分配或已销毁时忽略
+     */
+    public void attachEntity() {
+        if (entity >= 0 || destroyed) return;
+        EntityWorld world = EntityWorld.getInstance();
+        entity = world.createEntity(this);
+        id = world.getEntityId(entity);
+        for (Component<?> component : components) {
+            world.addComponent(entity, component);
+        }
+        for (Component<?> component : components) {
+            component.onEntityAttached();
+        }
+    }
+    
+    /**
+     * 从场景中移除后由场景调用：默认销毁，池化对象重写为归还对象池
+     */
+    public void recycle() {
+        destroy();
+    }
+    
+    /**
+     * 重置所有组件状态（对象池回收时使用）
+     */
+    public void resetComponents() {
+        for (int i = 0; i < components.size(); i++) {
+            components.get(i).reset();
+        }
     }
     
     /**
@@ -68,6 +135,10 @@ public class GameObject {
     public <T extends Component<T>> T addComponent(T component) {
         component.setOwner(this);
         components.add(component);
+        phaseMask = -1;
+        if (!destroyed && entity >= 0) {
+            EntityWorld.getInstance().addComponent(entity, component);
+        }
         component.initialize();
         return component;
     }
@@ -77,42 +148,81 @@ public class GameObject {
      */
     @SuppressWarnings("unchecked")
     public <T extends Component<T>> T getComponent(Class<T> componentType) {
-        for (Component<?> component : components) {
-            if (componentType.isInstance(component)) {
-                return (T) component;
+        if (destroyed) return null;
+        if (entity < 0) {
+            // 尚未分配实体：按添加顺序找第一个匹配的组件（与实体存储的查找语义一致）
+            for (Component<?> component : components) {
+                if (componentType.isInstance(component)) return (T) component;
             }
+            return null;
         }
-        return null;
+        return (T) EntityWorld.getInstance().getComponent(entity, ComponentRegistry.getTypeId(componentType));
     }
     
     /**
      * 检查是否有指定类型的组件
      */
     public <T extends Component<T>> boolean hasComponent(Class<T> componentType) {
-        for (Component<?> component : components) {
-            if (componentType.isInstance(component)) {
-                return true;
-            }
-        }
-        return false;
+        return getComponent(componentType) != null;
     }
     
     /**
      * 更新所有组件
      */
     public void updateComponents(float deltaTime) {
-        for (Component<?> component : components) {
+        // 按下标遍历：每帧对每个对象调用，避免创建迭代器
+        for (int i = 0; i < components.size(); i++) {
+            Component<?> component = components.get(i);
             if (component.isEnabled()) {
                 component.update(deltaTime);
             }
         }
     }
     
+    /**
+     * 更新属于指定阶段的组件（并行更新模式，由场景在工作线程上调用）
+     */
+    public void updateComponents(UpdatePhase phase, float deltaTime) {
+        if ((getPhaseMask() & (1 << phase.ordinal())) == 0) return;
+        UpdatePhase[] phases = componentPhases;
+        for (int i = 0; i < phases.length; i++) {
+            if (phases[i] == phase) {
+                Component<?> component = components.get(i);
+                if (component.isEnabled()) {
+                    component.update(deltaTime);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 是否可以在并行更新模式下按阶段并行更新：没有重写 update，且所有组件都声明了更新阶段
+     */
+    public boolean isParallelUpdatable() {
+        return (getPhaseMask() & UNSAFE_PHASE) == 0;
+    }
+    
+    private int getPhaseMask() {
+        int mask = phaseMask;
+        if (mask == -1) {
+            mask = OVERRIDES_UPDATE.get(getClass()) ? UNSAFE_PHASE : 0;
+            UpdatePhase[] phases = new UpdatePhase[components.size()];
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = components.get(i).getUpdatePhase();
+                mask |= phases[i] == null ? UNSAFE_PHASE : 1 << phases[i].ordinal();
+            }
+            componentPhases = phases;
+            phaseMask = mask;
+        }
+        return mask;
+    }
+    
     /**
      * 渲染所有组件
      */
     public void renderComponents() {
-        for (Component<?> component : components) {
+        for (int i = 0; i < components.size(); i++) {
+            Component<?> component = components.get(i);
             if (component.isEnabled()) {
                 component.render();
             }
@@ -129,17 +239,82 @@ public class GameObject {
         this.active = active;
     }
     
+    /**
+     * 是否已销毁（实体已释放）
+     */
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+    
+    /**
+     * 获取实体编号，尚未加入过场景时返回-1
+     */
+    public int getEntity() {
+        return entity;
+    }
+    
     public String getName() {
         return name;
     }
     
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        if (currentScene != null && !Objects.equals(oldName, name)) {
+            currentScene.onGameObjectRenamed(this, oldName);
+        }
+    }
+    
+    /**
+     * 获取标签位掩码
+     */
+    public long getTags() {
+        return tags;
+    }
+    
+    /**
+     * 设置标签位掩码
+     */
+    public void setTags(long tags) {
+        long oldTags = this.tags;
+        this.tags = tags;
+        if (currentScene != null && oldTags != tags) {
+            currentScene.onGameObjectTagsChanged(this, oldTags);
+        }
+    }
+    
+    /**
+     * 添加标签（0~63）
+     */
+    public void addTag(int tag) {
+        setTags(tags | tagBit(tag));
+    }
+    
+    /**
+     * 移除标签（0~63）
+     */
+    public void removeTag(int tag) {
+        setTags(tags & ~tagBit(tag));
     }
     
-    // 获取唯一标识符
+    public boolean hasTag(int tag) {
+        return (tags & tagBit(tag)) != 0;
+    }
+    
+    private static long tagBit(int tag) {
+        return 1L << Objects.checkIndex(tag, 64);
+    }
+    
+    /**
+     * 获取64位实体ID，尚未加入过场景时返回 EntityId.NONE
+     */
+    public long getId() {
+        return id;
+    }
+
+    // 获取唯一标识符（ID的紧凑字符串形式，按需生成）
     public String getUniqueId() {
-        return uniqueId;
+        return EntityId.toString(id);
     }
 
     // 新增：获取所属场景
@@ -151,4 +326,18 @@ public class GameObject {
     public void setScene(Scene scene) {
         this.currentScene = scene;
     }
+
+    /**
+     * 获取在所属场景对象数组中的下标（由场景维护，-1表示不在场景中）
+     */
+    public int getSceneIndex() {
+        return sceneIndex;
+    }
+
+    /**
+     * 由场景在加入、移动、移除对象时调用
+     */
+    public void setSceneIndex(int sceneIndex) {
+        this.sceneIndex = sceneIndex;
+    }
 }
\ No newline at end of file
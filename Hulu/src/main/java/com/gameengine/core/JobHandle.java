@@ -0,0 +1,109 @@
+package com.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务系统中的一个异步任务
+ * 未完成的依赖数降为0时才被调度；完成后依次通知依赖它的任务
+ */
+public final class JobHandle {
+    private final JobSystem system;
+    private final Runnable work;
+    private final AtomicInteger pendingDependencies; // 未完成的依赖数
+    private List<JobHandle> dependents;               // 依赖本任务的任务（受 this 锁保护）
+    private volatile boolean done;
+    private volatile Throwable failure;
+
+    JobHandle(JobSystem system, Runnable work, int pendingDependencies) {
+        this.system = system;
+        this.work = work;
+        this.pendingDependencies = new AtomicInteger(pendingDependencies);
+    }
+
+    // 登记依赖本任务的任务，本任务已完成时返回false
+    synchronized boolean addDependent(JobHandle dependent) {
+        if (done) return false;
+        if (dependents == null) {
+            dependents = new ArrayList<>(2);
+        }
+        dependents.add(dependent);
+        return true;
+    }
+
+    // 一个依赖完成（或提交保护解除），计数归零时调度执行
+    void dependencyDone() {
+        if (pendingDependencies.decrementAndGet() == 0) {
+            system.schedule(this);
+        }
+    }
+
+    void run() {
+        try {
+            work.run();
+        } catch (Throwable e) {
+            failure = e;
+            System.err.println("任务执行异常: " + e);
+            e.printStackTrace();
+        } finally {
+            complete();
+        }
+    }
+
+    private void complete() {
+        List<JobHandle> released;
+        synchronized (this) {
+            done = true;
+            released = dependents;
+            dependents = null;
+            notifyAll();
+        }
+        // 依赖本任务的任务即使本任务失败也照常执行，由它们自行检查 getFailure
+        if (released != null) {
+            for (int i = 0; i < released.size(); i++) {
+                released.get(i).dependencyDone();
+            }
+        }
+        system.jobFinished();
+    }
+
+    /**
+     * 阻塞等待任务完成（在工作线程中调用时会补偿一个线程，不会饿死线程池）
+     */
+    public void await() {
+        if (done) return;
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    synchronized (JobHandle.this) {
+                        while (!done) {
+                            JobHandle.this.wait();
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return done;
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 任务抛出的异常，正常完成时为null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
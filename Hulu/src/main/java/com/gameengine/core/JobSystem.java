@@ -0,0 +1,252 @@
+package com.gameengine.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 引擎级任务系统：由 GameEngine 持有的唯一工作窃取线程池
+ * 场景并行更新、碰撞检测、录像序列化和回放解析都在这里调度，避免各自建线程池导致核心超额订阅
+ * 工作线程数默认为 CPU 核心数-1（parallelFor 的调用线程也参与计算），引擎清理时关闭
+ */
+public final class JobSystem {
+    /**
+     * 区间任务：处理 [from, to) 范围内的元素
+     */
+    @FunctionalInterface
+    public interface RangeJob {
+        void run(int from, int to);
+    }
+
+    private static final int JOIN_SPINS = 100; // 调用线程做完自己的份额后自旋等待的次数，之后改为让出CPU
+
+    private final ForkJoinPool pool;
+    private final int workerCount;
+    private final AtomicInteger outstanding = new AtomicInteger(); // 已提交但未完成的任务数（帧栅栏用）
+    private final Object fenceLock = new Object();
+    private volatile boolean shutdown;
+    // parallelFor 复用的根任务：每帧调用不分配；嵌套或多个线程同时调用时取不到就新建
+    private final AtomicReference<RangeTask> spareTask = new AtomicReference<>();
+
+    public JobSystem() {
+        this(defaultWorkerCount());
+    }
+
+    public JobSystem(int workerCount) {
+        this.workerCount = Math.max(1, workerCount);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ForkJoinPool(this.workerCount, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("job-worker-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 默认工作线程数：CPU 核心数-1，至少1个
+     */
+    public static int defaultWorkerCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * 并行处理 [0, count) 区间：按 grain 二分成细粒度任务交给工作线程窃取执行，返回时全部完成
+     * 调用线程也算一个参与者：先把后面的份额交给线程池，自己处理最前面一份再等待其余完成，
+     * 所以只有1个工作线程（双核机器）时也是两个线程在干活
+     * 元素不超过一个粒度时直接在调用线程执行，避免调度开销
+     * 任务中抛出的异常会在调用线程重新抛出
+     * @param grain 每个任务最多处理的元素数
+     */
+    public void parallelFor(int count, int grain, RangeJob job) {
+        if (count <= 0) return;
+        int chunk = Math.max(1, grain);
+        if (count <= chunk || shutdown) {
+            job.run(0, count);
+            return;
+        }
+        // 调用线程的份额按参与者数均分，并对齐到粒度
+        int share = count / (workerCount + 1);
+        share = Math.max(chunk, share - share % chunk);
+        if (share >= count) {
+            job.run(0, count);
+            return;
+        }
+        RangeTask rest = spareTask.getAndSet(null);
+        if (rest == null) {
+            rest = new RangeTask(job, chunk, share, count);
+        } else {
+            rest.prepare(job, chunk, share, count);
+        }
+        pool.submit(rest);
+        try {
+            for (int from = 0; from < share; from += chunk) {
+                job.run(from, Math.min(share, from + chunk));
+            }
+        } finally {
+            // 各份额的工作量相近，其余份额通常马上完成：先自旋，再让出CPU（单核时工作线程才能运行），
+            // 等到完成再 join，不会为阻塞等待分配节点；工作线程内的嵌套调用直接 join，由它帮忙执行剩余任务
+            for (int spins = 0; !rest.isDone() && !ForkJoinTask.inForkJoinPool(); spins++) {
+                if (spins < JOIN_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            try {
+                rest.join();
+            } finally {
+                rest.prepare(null, 0, 0, 0);
+                spareTask.set(rest);
+            }
+        }
+    }
+
+    // 把区间二分到不超过 grain 个元素的任务
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private RangeJob job;
+        private int grain;
+        private int from;
+        private int to;
+
+        RangeTask(RangeJob job, int grain, int from, int to) {
+            this.job = job;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+        }
+
+        // 重置为未完成状态以便复用（只能在任务完成后调用）
+        void prepare(RangeJob job, int grain, int from, int to) {
+            reinitialize();
+            this.job = job;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                job.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(job, grain, from, mid),
+                      new RangeTask(job, grain, mid, to));
+        }
+    }
+
+    /**
+     * 提交一个异步任务，所有依赖任务完成后才开始执行
+     * 任务计入当前帧，frameFence 会等待它完成
+     * @param dependencies 需要先完成的任务，可为空
+     */
+    public JobHandle submit(Runnable work, JobHandle... dependencies) {
+        if (work == null) {
+            throw new IllegalArgumentException("work must not be null");
+        }
+        // 计数多出的1是提交保护，防止依赖登记到一半时任务就被调度
+        JobHandle job = new JobHandle(this, work, dependencies.length + 1);
+        outstanding.incrementAndGet();
+        for (JobHandle dependency : dependencies) {
+            if (dependency == null || !dependency.addDependent(job)) {
+                job.dependencyDone(); // 依赖已经完成
+            }
+        }
+        job.dependencyDone();
+        return job;
+    }
+
+    // 依赖全部完成，交给线程池执行（已关闭时在当前线程执行，保证依赖链和帧栅栏不会卡住）
+    void schedule(JobHandle job) {
+        if (shutdown) {
+            job.run();
+            return;
+        }
+        try {
+            pool.execute(job::run);
+        } catch (RejectedExecutionException e) {
+            job.run();
+        }
+    }
+
+    // 任务执行完毕
+    void jobFinished() {
+        if (outstanding.decrementAndGet() == 0) {
+            synchronized (fenceLock) {
+                fenceLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 帧栅栏：等待本帧提交的所有异步任务完成
+     * 由引擎在每帧末尾调用，保证任务读取的数据在下一帧修改前已经用完
+     */
+    public void frameFence() {
+        if (outstanding.get() == 0) return;
+        boolean interrupted = false;
+        synchronized (fenceLock) {
+            while (outstanding.get() > 0) {
+                try {
+                    fenceLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 尚未完成的异步任务数
+     */
+    public int getOutstandingJobs() {
+        return outstanding.get();
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * 当前线程是否为本任务系统的工作线程
+     */
+    public boolean isWorkerThread() {
+        Thread current = Thread.currentThread();
+        return current instanceof ForkJoinWorkerThread
+            && ((ForkJoinWorkerThread) current).getPool() == pool;
+    }
+
+    /**
+     * 关闭任务系统：先等待已提交的任务完成，再停止工作线程
+     */
+    public void shutdown() {
+        if (shutdown) return;
+        frameFence();
+        shutdown = true;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+}
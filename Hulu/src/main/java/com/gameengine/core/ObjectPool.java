@@ -0,0 +1,102 @@
+package com.gameengine.core;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 通用对象池：acquire 取出对象（池空时由工厂创建），release 归还对象以便复用
+ * 归还时调用重置回调恢复对象状态；池满或清空时调用丢弃回调（如销毁游戏对象）
+ * 非线程安全，只能在主线程使用
+ * @param <T> 池化对象类型
+ */
+public class ObjectPool<T> {
+    private final Supplier<T> factory;
+    private final Consumer<T> resetHook;    // 归还时重置对象，可为null
+    private final Consumer<T> discardHook;  // 丢弃对象时的处理，可为null
+    private final int maxSize;              // 最多缓存的空闲对象数量
+    private final ArrayDeque<T> free;
+    private int createdCount;
+
+    public ObjectPool(Supplier<T> factory, int maxSize) {
+        this(factory, null, null, maxSize);
+    }
+
+    public ObjectPool(Supplier<T> factory, Consumer<T> resetHook, Consumer<T> discardHook, int maxSize) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory must not be null");
+        }
+        this.factory = factory;
+        this.resetHook = resetHook;
+        this.discardHook = discardHook;
+        this.maxSize = Math.max(0, maxSize);
+        this.free = new ArrayDeque<>(Math.min(this.maxSize, 64));
+    }
+
+    /**
+     * 取出一个对象，没有空闲对象时创建新对象
+     */
+    public T acquire() {
+        T obj = free.pollLast();
+        if (obj == null) {
+            obj = factory.get();
+            createdCount++;
+        }
+        return obj;
+    }
+
+    /**
+     * 归还对象：先重置，池已满时丢弃
+     */
+    public void release(T obj) {
+        if (obj == null) return;
+        if (resetHook != null) {
+            resetHook.accept(obj);
+        }
+        if (free.size() < maxSize) {
+            free.addLast(obj);
+        } else if (discardHook != null) {
+            discardHook.accept(obj);
+        }
+    }
+
+    /**
+     * 预先创建对象，避免运行中第一次使用时集中分配
+     */
+    public void prewarm(int count) {
+        while (free.size() < Math.min(count, maxSize)) {
+            free.addLast(factory.get());
+            createdCount++;
+        }
+    }
+
+    /**
+     * 丢弃所有空闲对象
+     */
+    public void clear() {
+        T obj;
+        while ((obj = free.pollLast()) != null) {
+            if (discardHook != null) {
+                discardHook.accept(obj);
+            }
+        }
+    }
+
+    /**
+     * 当前空闲对象数量
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * 累计由工厂创建的对象数量
+     */
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
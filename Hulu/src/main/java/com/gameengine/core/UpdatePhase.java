@@ -0,0 +1,15 @@
+package com.gameengine.core;
+
+/**
+ * 并行更新模式下组件所属的更新阶段，按声明顺序依次执行
+ * 同一阶段内不同对象的组件会在多个线程上同时更新，因此组件在阶段内只能修改自身对象的数据，
+ * 结构性修改（添加对象、销毁对象）需通过 Scene.deferStructuralChange 推迟到提交点
+ */
+public enum UpdatePhase {
+    /** AI决策：读取其他对象的位置，决定行为 */
+    AI,
+    /** 运动：积分速度和位置 */
+    MOVEMENT,
+    /** 物理之后：依赖最终位置的逻辑 */
+    POST_PHYSICS
+}
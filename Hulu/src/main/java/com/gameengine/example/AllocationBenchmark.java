@@ -0,0 +1,155 @@
+package com.gameengine.example;
+
+import com.gameengine.components.AIComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.RenderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameEngine;
+import com.gameengine.core.GameLogic;
+import com.gameengine.core.GameObject;
+import com.gameengine.graphics.RenderBackend;
+import com.gameengine.math.Vector2;
+import com.gameengine.physics.AABB;
+import com.gameengine.physics.CollisionMatrix;
+import com.gameengine.profiling.FrameProfiler;
+import com.gameengine.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 稳态分配基准测试：在无窗口引擎中运行固定的场景，用 ThreadMXBean 统计主循环线程每帧分配的字节数，稳态下应为0
+ * 用法：java com.gameengine.example.AllocationBenchmark [预热帧数] [测量帧数]（默认 10000 10000）
+ * 场景包含一个玩家、底部一排持续射击的敌人和对象池中的子弹，子弹射向画面顶部的靶子后出界回收，
+ * 角色数量保持不变；不开启录像（录像序列化本身需要分配）。预热要足够长，让 JIT 编译完热点方法、各缓冲区扩容到峰值
+ * JIT 去优化后回到解释执行时偶尔会分配几十到几百字节，与帧数无关；而每帧哪怕分配一个对象也至少16字节，
+ * 所以以平均每帧不足1字节作为零分配的判据，否则以状态码1退出
+ */
+public class AllocationBenchmark {
+    private static final int ENEMY_COUNT = 12;
+    private static final float ENEMY_SPACING = 40;  // 相邻敌人的间距，子弹斜向上飞出时不会擦到邻居
+    private static final float FIRE_INTERVAL = 0.25f;
+
+    public static void main(String[] args) {
+        int warmup = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        GameEngine engine = GameEngine.getInstance(800, 600, "AllocationBenchmark", RenderBackend.HEADLESS);
+        BenchmarkScene scene = new BenchmarkScene(warmup, frames);
+        engine.setMaxFrames(warmup + frames + 1); // 多跑一帧，在它开头读取测量结束时的计数
+        engine.setScene(scene);
+        engine.run();
+
+        long bytesPerFrame = scene.allocatedBytes / frames;
+        System.out.printf("%8s %12s %10s %10s %10s%n", "测量帧数", "总分配字节", "字节/帧", "角色数", "子弹数");
+        System.out.printf("%8d %12d %10d %10d %10d%n",
+            frames, scene.allocatedBytes, bytesPerFrame, scene.characterCount, scene.bulletCount);
+        if (!scene.steady) {
+            System.out.println("失败：测量期间场景不是稳态（有角色被击杀或游戏结束）");
+            System.exit(1);
+        }
+        if (bytesPerFrame != 0) {
+            System.out.println("失败：稳态下每帧仍有分配");
+            System.exit(1);
+        }
+        System.out.println("通过：稳态下每帧零分配");
+        System.exit(0);
+    }
+
+    /**
+     * 基准场景：按 GameScene 的顺序执行一个模拟步（场景更新、玩家输入、物理、碰撞检测），
+     * 在第 warmup 帧和第 warmup+frames 帧开头读取主循环线程的累计分配字节数
+     */
+    private static final class BenchmarkScene extends Scene {
+        private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final long threadId = Thread.currentThread().getId();
+        private final int warmup;
+        private final int frames;
+        private int frame;
+        private long startBytes;
+        private int startCharacters;
+
+        long allocatedBytes;
+        int characterCount;
+        int bulletCount;
+        boolean steady;
+
+        BenchmarkScene(int warmup, int frames) {
+            super("AllocationBenchmark");
+            this.warmup = warmup;
+            this.frames = frames;
+        }
+
+        @Override
+        public void initialize() {
+            super.initialize();
+            GameLogic gameLogic = new GameLogic(this);
+            setGameLogic(gameLogic);
+            // 敌人位置固定，运动的物体是子弹；子弹从发射者位置射出，关闭敌人与子弹的物理碰撞，免得出膛时被推开撞到邻居（命中仍由 GameLogic 判定）
+            gameLogic.getPhysicsWorld().getCollisionMatrix().setCollides(CollisionMatrix.ENEMY, CollisionMatrix.BULLET, false);
+
+            // 玩家停在左侧，不在任何子弹的路径上
+            GameObject player = createBody("Player", 20, 100);
+            gameLogic.getPhysicsWorld().registerPhysicsBody(
+                player, new AABB(new Vector2(20, 100), new Vector2(20, 20)), CollisionMatrix.PLAYER);
+
+            // 靶子只作为敌人的瞄准点，不参与物理和碰撞检测
+            createBody("Target", 390, 20);
+
+            float startX = (800 - ENEMY_SPACING * (ENEMY_COUNT - 1)) / 2;
+            for (int i = 0; i < ENEMY_COUNT; i++) {
+                float x = startX + i * ENEMY_SPACING;
+                GameObject enemy = createBody("Enemy", x, 540);
+                AIComponent ai = enemy.addComponent(new AIComponent(FIRE_INTERVAL, "Target"));
+                ai.setTargetLayers(1 << CollisionMatrix.PLAYER);
+                gameLogic.getPhysicsWorld().registerPhysicsBody(
+                    enemy, new AABB(new Vector2(x, 540), new Vector2(20, 20)), CollisionMatrix.ENEMY);
+            }
+            threads.getThreadAllocatedBytes(threadId); // 首次调用的初始化不计入测量
+        }
+
+        private GameObject createBody(String name, float x, float y) {
+            GameObject obj = new GameObject(name);
+            obj.addComponent(new TransformComponent(new Vector2(x, y)));
+            RenderComponent render = obj.addComponent(new RenderComponent(
+                RenderComponent.RenderType.RECTANGLE,
+                new Vector2(20, 20),
+                new RenderComponent.Color(1.0f, 0.5f, 0.0f, 1.0f)
+            ));
+            render.setRenderer(getEngine().getRenderer());
+            PhysicsComponent physics = obj.addComponent(new PhysicsComponent(0.5f));
+            physics.setFriction(1.0f);
+            addGameObject(obj);
+            return obj;
+        }
+
+        private int countCharacters() {
+            return findGameObjectsByName("Player").size() + findGameObjectsByName("Enemy").size();
+        }
+
+        @Override
+        public void update(float deltaTime) {
+            if (frame == warmup) {
+                startCharacters = countCharacters();
+                startBytes = threads.getThreadAllocatedBytes(threadId);
+            } else if (frame == warmup + frames) {
+                allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+                characterCount = countCharacters();
+                bulletCount = findGameObjectsByNameContaining("Bullet").size();
+                steady = characterCount == startCharacters && !getGameLogic().isGameOver();
+            }
+            frame++;
+
+            super.update(deltaTime);
+            GameLogic gameLogic = getGameLogic();
+            FrameProfiler profiler = getEngine().getProfiler();
+            gameLogic.handlePlayerInput();
+            profiler.begin(FrameProfiler.Phase.PHYSICS);
+            gameLogic.updatePhysics(deltaTime);
+            profiler.end(FrameProfiler.Phase.PHYSICS);
+            profiler.begin(FrameProfiler.Phase.COLLISIONS);
+            gameLogic.checkCollisions();
+            profiler.end(FrameProfiler.Phase.COLLISIONS);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.gameengine.example;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.math.Vector2;
+import com.gameengine.physics.AABB;
+import com.gameengine.physics.BroadphaseType;
+import com.gameengine.physics.PhysicsWorld;
+import com.gameengine.scene.Scene;
+
+import java.util.Random;
+
+/**
+ * 宽相检测基准测试：比较逐对遍历、空间哈希与排序扫描在不同物体数量下每个物理步的耗时
+ * 用法：java com.gameengine.example.BroadphaseBenchmark [物体数量...]（默认 1000 10000 50000）
+ * 物体随机分布在800x600的场景内，缓慢随机运动，碰撞层在玩家/敌人/子弹之间随机分配
+ */
+public class BroadphaseBenchmark {
+    private static final float BODY_SIZE = 2;      // 物体边长（保持5万个物体时的重叠数量可控）
+    private static final float MAX_SPEED = 30;     // 初速度上限（像素/秒）
+    private static final float STEP = 1.0f / 60.0f;
+
+    public static void main(String[] args) {
+        int[] counts = args.length > 0 ? new int[args.length] : new int[] {1000, 10000, 50000};
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%-16s %8s %12s %12s%n", "宽相", "物体数", "毫秒/步", "窄相检测数");
+        for (int count : counts) {
+            for (BroadphaseType type : BroadphaseType.values()) {
+                run(type, count);
+            }
+        }
+    }
+
+    private static void run(BroadphaseType type, int count) {
+        Scene scene = new Scene("BroadphaseBenchmark");
+        PhysicsWorld world = new PhysicsWorld(scene, type);
+        Random random = new Random(count); // 各算法使用相同的初始布局
+
+        for (int i = 0; i < count; i++) {
+            Vector2 position = new Vector2(random.nextFloat() * (800 - BODY_SIZE), random.nextFloat() * (600 - BODY_SIZE));
+            GameObject obj = new GameObject("Body");
+            obj.addComponent(new TransformComponent(position));
+            PhysicsComponent physics = obj.addComponent(new PhysicsComponent(1.0f));
+            physics.setUseGravity(false);
+            physics.setFriction(1.0f);
+            physics.setVelocity((random.nextFloat() * 2 - 1) * MAX_SPEED, (random.nextFloat() * 2 - 1) * MAX_SPEED);
+            scene.addGameObject(obj);
+            world.registerPhysicsBody(obj, new AABB(position, new Vector2(BODY_SIZE, BODY_SIZE)), random.nextInt(3));
+        }
+
+        // 逐对遍历是平方复杂度，物体多时只测少量步
+        int steps = type == BroadphaseType.BRUTE_FORCE
+            ? Math.max(2, (int) (4_000_000_000L / ((long) count * count)))
+            : Math.max(10, 2_000_000 / count);
+        steps = Math.min(steps, 300);
+        int warmup = Math.max(1, steps / 5);
+
+        for (int i = 0; i < warmup; i++) {
+            world.update(STEP);
+        }
+        long pairTests = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            world.update(STEP);
+            pairTests += world.getLastPairTests();
+        }
+        double msPerStep = (System.nanoTime() - start) / 1_000_000.0 / steps;
+
+        System.out.printf("%-16s %8d %12.3f %12d%n", type, count, msPerStep, pairTests / steps);
+        scene.dispose();
+    }
+}
@@ -6,6 +6,7 @@ import com.gameengine.core.GameLogic;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.math.Vector2;
 import com.gameengine.physics.AABB;
+import com.gameengine.physics.CollisionMatrix;
 import com.gameengine.scene.Scene;
 
 import java.util.Random;
@@ -14,6 +15,7 @@ import java.util.Random;
  * 敌人角色类
  */
 public class Enemy extends GameObject {
+    private static final float DETECTION_RANGE = 1000; // 索敌半径（像素），不小于800x600场景的对角线，任何位置的敌人都会开火
     private IRenderer renderer;
     
     public Enemy(Vector2 position, IRenderer renderer) {
@@ -40,8 +42,10 @@ public class Enemy extends GameObject {
         ));
         physics.setFriction(0.98f);
         
-        // 添加AI组件 - 自动射击玩家
-        addComponent(new AIComponent(2.0f, "Player"));
+        // 添加AI组件 - 自动射击最近的玩家（通过物理世界的包围盒树查询，半径覆盖全场景）
+        AIComponent ai = addComponent(new AIComponent(2.0f, "Player"));
+        ai.setDetectionRange(DETECTION_RANGE);
+        ai.setTargetLayers(1 << CollisionMatrix.PLAYER);
     }
     
     /**
@@ -57,7 +61,7 @@ public class Enemy extends GameObject {
         gameLogic.getPhysicsWorld().registerPhysicsBody(
             this,
             new AABB(transform.getPosition(), new Vector2(20, 20)),
-            1 // 敌人层
+            CollisionMatrix.ENEMY
         );
     }
 }
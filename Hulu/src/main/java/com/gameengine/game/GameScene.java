@@ -4,6 +4,7 @@ import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.math.Vector2;
+import com.gameengine.profiling.FrameProfiler;
 import com.gameengine.scene.Scene;
 
 import java.util.Random;
@@ -60,9 +61,14 @@ public class GameScene extends Scene {
             // 检查游戏是否结束
             if (!gameLogic.isGameOver()) {
                 // 游戏未结束，正常更新游戏逻辑
+                FrameProfiler profiler = getEngine().getProfiler();
                 gameLogic.handlePlayerInput();
+                profiler.begin(FrameProfiler.Phase.PHYSICS);
                 gameLogic.updatePhysics(deltaTime);
+                profiler.end(FrameProfiler.Phase.PHYSICS);
+                profiler.begin(FrameProfiler.Phase.COLLISIONS);
                 gameLogic.checkCollisions();
+                profiler.end(FrameProfiler.Phase.COLLISIONS);
                 
                 // 生成新敌人
                 enemySpawnTimer += deltaTime;
@@ -107,7 +113,17 @@ public class GameScene extends Scene {
             gameLogic.renderGameOver(renderer);
         }
     }
-    
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        // 释放对象池中的子弹和游戏逻辑的线程池
+        GameLogic gameLogic = getGameLogic();
+        if (gameLogic != null) {
+            gameLogic.dispose();
+        }
+    }
+
     /**
      * 创建玩家
      */
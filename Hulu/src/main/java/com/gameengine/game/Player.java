@@ -6,7 +6,6 @@ import com.gameengine.core.GameLogic;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
-import com.gameengine.physics.AABB;
 import com.gameengine.scene.Scene;
 
 /**
@@ -56,11 +55,17 @@ public class Player extends GameObject {
     private void updateBodyParts() {
         TransformComponent transform = getComponent(TransformComponent.class);
         if (transform != null) {
-            basePosition = transform.getPosition();
+            basePosition.set(transform.getX(), transform.getY());
         }
     }
     
     private void renderBodyParts() {
+        // 使用插值位置渲染，避免固定步长下的抖动
+        TransformComponent transform = getComponent(TransformComponent.class);
+        if (transform != null && getScene() != null) {
+            float alpha = getScene().getRenderAlpha();
+            basePosition.set(transform.getInterpolatedX(alpha), transform.getInterpolatedY(alpha));
+        }
         if (basePosition == null || renderer == null) return;
         
         // 渲染身体
@@ -89,31 +94,22 @@ public class Player extends GameObject {
     }
     
     private void shoot() {
-        Vector2 direction = new Vector2(0, -1); // 向上发射
         TransformComponent transform = getComponent(TransformComponent.class);
         if (transform == null) return;
         
         // 在玩家位置前方生成子弹
-        Vector2 bulletPos = new Vector2(
-            transform.getPosition().x,
-            transform.getPosition().y - 20
-        );
+        float bulletX = transform.getX();
+        float bulletY = transform.getY() - 20;
         
-        // 创建子弹并添加到场景
         Scene scene = getScene();
         if (scene == null) return;
         
-        Bullet bullet = new Bullet("PlayerBullet", this, direction, bulletPos);
-        scene.addGameObject(bullet);
-        
-        // 注册子弹到物理系统（碰撞层设为2）
+        // 从对象池取出子弹，向上发射（加入场景并注册到物理系统的子弹层）
         GameLogic gameLogic = scene.getGameLogic();
         if (gameLogic != null) {
-            gameLogic.getPhysicsWorld().registerPhysicsBody(
-                bullet,
-                new AABB(bulletPos, new Vector2(8, 8)),
-                2 // 子弹层
-            );
+            gameLogic.spawnBullet("PlayerBullet", this, 0, -1, bulletX, bulletY);
+        } else {
+            scene.addGameObject(new Bullet("PlayerBullet", this, new Vector2(0, -1), new Vector2(bulletX, bulletY)));
         }
     }
 }
@@ -15,6 +15,7 @@ import java.io.File;
 import java.util.*;
 
 public class ReplayScene extends Scene {
+    private static final int PARSE_GRAIN = 16; // 每个解析任务处理的关键帧行数
     private final GameEngine engine;
     private String recordingPath;
     private IRenderer renderer;
@@ -138,46 +139,25 @@ public class ReplayScene extends Scene {
     private void loadRecording(String path) {
         keyframes.clear();
         try {
+            // 先挑出关键帧行，再交给引擎的任务系统并行解析，结果按行号写回保持原顺序
+            List<String> lines = new ArrayList<>();
             for (String line : storage.readLines(path)) {
                 if (line.contains("\"type\":\"keyframe\"")) {
-                    Keyframe kf = new Keyframe();
-                    kf.t = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(line, "t"));
-                    // 解析 entities 列表中的若干 {"id":"name","x":num,"y":num}
-                    int idx = line.indexOf("\"entities\":[");
-                    if (idx >= 0) {
-                        int bracket = line.indexOf('[', idx);
-                        String arr = bracket >= 0 ? com.gameengine.recording.RecordingJson.extractArray(line, bracket) : "";
-                        String[] parts = com.gameengine.recording.RecordingJson.splitTopLevel(arr);
-                        for (String p : parts) {
-                            Keyframe.EntityInfo ei = new Keyframe.EntityInfo();
-                            ei.id = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "id"));
-                            // 解析uniqueId字段
-                            ei.uniqueId = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "uniqueId"));
-                            double x = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "x"));
-                            double y = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "y"));
-                            ei.pos = new Vector2((float)x, (float)y);
-                            String rt = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "rt"));
-                            ei.rt = rt;
-                            ei.w = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "w"));
-                            ei.h = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "h"));
-                            String colorArr = com.gameengine.recording.RecordingJson.field(p, "color");
-                            if (colorArr != null && colorArr.startsWith("[")) {
-                                String c = colorArr.substring(1, Math.max(1, colorArr.indexOf(']', 1)));
-                                String[] cs = c.split(",");
-                                if (cs.length >= 3) {
-                                    try {
-                                        ei.r = Float.parseFloat(cs[0].trim());
-                                        ei.g = Float.parseFloat(cs[1].trim());
-                                        ei.b = Float.parseFloat(cs[2].trim());
-                                        if (cs.length >= 4) ei.a = Float.parseFloat(cs[3].trim());
-                                    } catch (Exception ignored) {}
-                                }
-                            }
-                            kf.entities.add(ei);
-                        }
+                    lines.add(line);
+                }
+            }
+            Keyframe[] parsed = new Keyframe[lines.size()];
+            engine.getJobSystem().parallelFor(lines.size(), PARSE_GRAIN, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    try {
+                        parsed[i] = parseKeyframe(lines.get(i));
+                    } catch (RuntimeException e) {
+                        parsed[i] = null; // 跳过损坏的行
                     }
-                    keyframes.add(kf);
                 }
+            });
+            for (Keyframe kf : parsed) {
+                if (kf != null) keyframes.add(kf);
             }
         } catch (Exception e) {
             
@@ -185,6 +165,47 @@ public class ReplayScene extends Scene {
         keyframes.sort(Comparator.comparingDouble(k -> k.t));
     }
 
+    // 解析一行关键帧（在工作线程中调用，只读取传入的行）
+    private static Keyframe parseKeyframe(String line) {
+        Keyframe kf = new Keyframe();
+        kf.t = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(line, "t"));
+        // 解析 entities 列表中的若干 {"id":"name","x":num,"y":num}
+        int idx = line.indexOf("\"entities\":[");
+        if (idx >= 0) {
+            int bracket = line.indexOf('[', idx);
+            String arr = bracket >= 0 ? com.gameengine.recording.RecordingJson.extractArray(line, bracket) : "";
+            String[] parts = com.gameengine.recording.RecordingJson.splitTopLevel(arr);
+            for (String p : parts) {
+                Keyframe.EntityInfo ei = new Keyframe.EntityInfo();
+                ei.id = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "id"));
+                // 解析uniqueId字段
+                ei.uniqueId = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "uniqueId"));
+                double x = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "x"));
+                double y = com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "y"));
+                ei.pos = new Vector2((float)x, (float)y);
+                String rt = com.gameengine.recording.RecordingJson.stripQuotes(com.gameengine.recording.RecordingJson.field(p, "rt"));
+                ei.rt = rt;
+                ei.w = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "w"));
+                ei.h = (float)com.gameengine.recording.RecordingJson.parseDouble(com.gameengine.recording.RecordingJson.field(p, "h"));
+                String colorArr = com.gameengine.recording.RecordingJson.field(p, "color");
+                if (colorArr != null && colorArr.startsWith("[")) {
+                    String c = colorArr.substring(1, Math.max(1, colorArr.indexOf(']', 1)));
+                    String[] cs = c.split(",");
+                    if (cs.length >= 3) {
+                        try {
+                            ei.r = Float.parseFloat(cs[0].trim());
+                            ei.g = Float.parseFloat(cs[1].trim());
+                            ei.b = Float.parseFloat(cs[2].trim());
+                            if (cs.length >= 4) ei.a = Float.parseFloat(cs[3].trim());
+                        } catch (Exception ignored) {}
+                    }
+                }
+                kf.entities.add(ei);
+            }
+        }
+        return kf;
+    }
+
     private void buildObjectsFromFirstKeyframe() {
         if (keyframes.isEmpty()) return;
         Keyframe kf0 = keyframes.get(0);
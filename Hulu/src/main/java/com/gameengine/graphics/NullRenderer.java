@@ -0,0 +1,97 @@
+package com.gameengine.graphics;
+
+// 空渲染器：不创建窗口和OpenGL上下文，只统计绘制调用次数，用于服务器端模拟和无显示环境的测试。
+public class NullRenderer implements IRenderer {
+    private final int width;
+    private final int height;
+    private final String title;
+    private long frameCount;        // 已完成的帧数
+    private long drawCalls;         // 累计绘制调用次数
+    private int frameDrawCalls;     // 当前帧绘制调用次数
+    private int lastFrameDrawCalls; // 上一帧绘制调用次数
+
+    public NullRenderer(int width, int height, String title) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+    }
+
+    @Override
+    public void beginFrame() {
+        frameDrawCalls = 0;
+    }
+
+    @Override
+    public void endFrame() {
+        lastFrameDrawCalls = frameDrawCalls;
+        frameCount++;
+    }
+
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        countDraw();
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        countDraw();
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        countDraw();
+    }
+
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        countDraw();
+    }
+
+    private void countDraw() {
+        frameDrawCalls++;
+        drawCalls++;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return false; // 没有窗口，由引擎自行决定何时停止
+    }
+
+    @Override
+    public void pollEvents() {
+        // 没有窗口事件
+    }
+
+    @Override
+    public void cleanup() {
+        // 无资源需要释放
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    public int getLastFrameDrawCalls() {
+        return lastFrameDrawCalls;
+    }
+}
+
@@ -1,6 +1,7 @@
 package com.gameengine.graphics;
 
 public enum RenderBackend {
-    GPU
+    GPU,
+    HEADLESS    // 无窗口模式：不创建OpenGL上下文，仅统计绘制调用
 }
 
@@ -1,6 +1,7 @@
 package com.gameengine.input;
 
 import com.gameengine.math.Vector2;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -15,11 +16,16 @@ public class InputManager {
     public static final int KEY_DOWN = 264;  // GLFW_KEY_DOWN
     public static final int KEY_ENTER = 257; // GLFW_KEY_ENTER
     public static final int KEY_ESCAPE = 256; // GLFW_KEY_ESCAPE
+    public static final int KEY_F3 = 292;     // GLFW_KEY_F3
+    private static final int KEY_TABLE_SIZE = 512; // 按键查询表大小（GLFW键码最大为348）
     
     private static InputManager instance;
     private Set<Integer> pressedKeys;
     private Set<Integer> justPressedKeys;
     private Map<Integer, Boolean> keyStates;
+    // 按键查询表：每帧的按键查询直接查数组，不为大于127的键码装箱（集合保留给快照和超出范围的键码）
+    private boolean[] keyDown;
+    private boolean[] keyJustPressed;
     private Vector2 mousePosition;
     private boolean[] mouseButtons;
     private boolean[] mouseButtonsJustPressed;
@@ -29,6 +35,8 @@ public class InputManager {
         pressedKeys = new HashSet<>();
         justPressedKeys = new HashSet<>();
         keyStates = new HashMap<>();
+        keyDown = new boolean[KEY_TABLE_SIZE];
+        keyJustPressed = new boolean[KEY_TABLE_SIZE];
         mousePosition = new Vector2();
         mouseButtons = new boolean[3]; // 左键、右键、中键
         mouseButtonsJustPressed = new boolean[3];
@@ -46,7 +54,10 @@ public class InputManager {
      * 更新输入状态
      */
     public void update() {
-        justPressedKeys.clear();
+        if (!justPressedKeys.isEmpty()) {
+            justPressedKeys.clear();
+            Arrays.fill(keyJustPressed, false);
+        }
         for (int i = 0; i < mouseButtonsJustPressed.length; i++) {
             mouseButtonsJustPressed[i] = false;
         }
@@ -58,8 +69,10 @@ public class InputManager {
     public void onKeyPressed(int keyCode) {
         if (!pressedKeys.contains(keyCode)) {
             justPressedKeys.add(keyCode);
+            if (inKeyTable(keyCode)) keyJustPressed[keyCode] = true;
         }
         pressedKeys.add(keyCode);
+        if (inKeyTable(keyCode)) keyDown[keyCode] = true;
         keyStates.put(keyCode, true);
     }
     
@@ -68,6 +81,7 @@ public class InputManager {
      */
     public void onKeyReleased(int keyCode) {
         pressedKeys.remove(keyCode);
+        if (inKeyTable(keyCode)) keyDown[keyCode] = false;
         keyStates.put(keyCode, false);
     }
     
@@ -104,14 +118,18 @@ public class InputManager {
      * 检查按键是否被按下
      */
     public boolean isKeyPressed(int keyCode) {
-        return pressedKeys.contains(keyCode);
+        return inKeyTable(keyCode) ? keyDown[keyCode] : pressedKeys.contains(keyCode);
     }
     
     /**
      * 检查按键是否刚刚被按下（只在这一帧为true）
      */
     public boolean isKeyJustPressed(int keyCode) {
-        return justPressedKeys.contains(keyCode);
+        return inKeyTable(keyCode) ? keyJustPressed[keyCode] : justPressedKeys.contains(keyCode);
+    }
+
+    private static boolean inKeyTable(int keyCode) {
+        return keyCode >= 0 && keyCode < KEY_TABLE_SIZE;
     }
     
     /**
@@ -189,5 +207,6 @@ public class InputManager {
      */
     public void consumeKey(int keyCode) {
         justPressedKeys.remove(keyCode);
+        if (inKeyTable(keyCode)) keyJustPressed[keyCode] = false;
     }
 }
\ No newline at end of file
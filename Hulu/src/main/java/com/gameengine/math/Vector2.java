@@ -42,6 +42,62 @@ public class Vector2 {
         return new Vector2(this.x * scalar, this.y * scalar);
     }
     
+    /**
+     * 原地向量加法（修改并返回自身）
+     */
+    public Vector2 addLocal(Vector2 other) {
+        this.x += other.x;
+        this.y += other.y;
+        return this;
+    }
+    
+    /**
+     * 原地向量加法（修改并返回自身）
+     */
+    public Vector2 addLocal(float x, float y) {
+        this.x += x;
+        this.y += y;
+        return this;
+    }
+    
+    /**
+     * 原地向量减法（修改并返回自身）
+     */
+    public Vector2 subtractLocal(Vector2 other) {
+        this.x -= other.x;
+        this.y -= other.y;
+        return this;
+    }
+    
+    /**
+     * 原地标量乘法（修改并返回自身）
+     */
+    public Vector2 scaleLocal(float scalar) {
+        this.x *= scalar;
+        this.y *= scalar;
+        return this;
+    }
+    
+    /**
+     * 原地加上另一个向量的倍数：this += other * scalar（修改并返回自身）
+     */
+    public Vector2 mulAddLocal(Vector2 other, float scalar) {
+        this.x += other.x * scalar;
+        this.y += other.y * scalar;
+        return this;
+    }
+    
+    /**
+     * 计算 a + b * scalar 并写入 dest，返回 dest（dest 可以是 a 或 b）
+     */
+    public static Vector2 mulAdd(Vector2 a, Vector2 b, float scalar, Vector2 dest) {
+        float rx = a.x + b.x * scalar;
+        float ry = a.y + b.y * scalar;
+        dest.x = rx;
+        dest.y = ry;
+        return dest;
+    }
+    
     /**
      * 计算向量长度
      */
@@ -58,6 +114,25 @@ public class Vector2 {
         return new Vector2(x / mag, y / mag);
     }
     
+    /**
+     * 原地标准化（零向量保持不变，修改并返回自身）
+     */
+    public Vector2 normalizeLocal() {
+        float mag = magnitude();
+        if (mag != 0) {
+            this.x /= mag;
+            this.y /= mag;
+        }
+        return this;
+    }
+    
+    /**
+     * 计算长度的平方（避免开方）
+     */
+    public float magnitudeSquared() {
+        return x * x + y * y;
+    }
+    
     /**
      * 计算点积
      */
@@ -69,7 +144,9 @@ public class Vector2 {
      * 计算距离
      */
     public float distance(Vector2 other) {
-        return this.subtract(other).magnitude();
+        float dx = this.x - other.x;
+        float dy = this.y - other.y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
     }
     
     @Override
@@ -14,50 +14,43 @@ public class AABB implements CollisionShape {
 
     @Override
     public void updatePosition(Vector2 position) {
-        Vector2 size = max.subtract(min);
-        this.min = new Vector2(position);
-        this.max = new Vector2(position).add(size);
+        updatePosition(position.x, position.y);
+    }
+
+    /**
+     * 原地更新位置（保持尺寸不变）
+     */
+    @Override
+    public void updatePosition(float x, float y) {
+        float width = max.x - min.x;
+        float height = max.y - min.y;
+        min.set(x, y);
+        max.set(x + width, y + height);
+    }
+
+    /**
+     * 判断两个以左上角和尺寸表示的矩形是否重叠（与 collidesWith 的边界语义一致）
+     */
+    public static boolean overlaps(float x1, float y1, float w1, float h1,
+                                   float x2, float y2, float w2, float h2) {
+        return x1 <= x2 + w2 && x1 + w1 >= x2 &&
+               y1 <= y2 + h2 && y1 + h1 >= y2;
+    }
+
+    @Override
+    public ShapeType getType() {
+        return ShapeType.AABB;
     }
 
     @Override
     public boolean collidesWith(CollisionShape other) {
-        if (other instanceof AABB) {
-            AABB otherAabb = (AABB) other;
-            return min.x <= otherAabb.max.x && 
-                   max.x >= otherAabb.min.x && 
-                   min.y <= otherAabb.max.y && 
-                   max.y >= otherAabb.min.y;
-        }
-        // 可扩展圆形、OBB等碰撞检测
-        return false;
+        return ShapeDispatch.collides(this, other);
     }
 
-    // AABB.java 中修正
+    // 分离向量：选择重叠量小的轴，方向从当前碰撞体指向另一个；不穿透时为零向量
     @Override
-    public Vector2 getSeparatingAxis(CollisionShape other) {
-        if (other instanceof AABB) {
-            AABB otherAabb = (AABB) other;
-            // 计算X轴和Y轴的重叠量（穿透深度）
-            float overlapX = Math.min(max.x, otherAabb.max.x) - Math.max(min.x, otherAabb.min.x);
-            float overlapY = Math.min(max.y, otherAabb.max.y) - Math.max(min.y, otherAabb.min.y);
-        
-            // 确保只在碰撞时返回分离向量（重叠量为正）
-            if (overlapX <= 0 || overlapY <= 0) {
-                return new Vector2(0, 0); // 无碰撞，返回零向量
-            }
-        
-            // 选择重叠量小的轴作为分离轴，方向为从当前AABB指向另一个
-            if (overlapX < overlapY) {
-                // X轴分离：当前AABB在左侧则向右分离，反之向左
-                float direction = (min.x < otherAabb.min.x) ? 1 : -1;
-                return new Vector2(overlapX * direction, 0);
-            } else {
-                // Y轴分离：当前AABB在下方则向上分离，反之向下
-                float direction = (min.y < otherAabb.min.y) ? 1 : -1;
-                return new Vector2(0, overlapY * direction);
-            }
-        }
-        return new Vector2(0, 0);
+    public Vector2 getSeparatingAxis(CollisionShape other, Vector2 out) {
+        return ShapeDispatch.separation(this, other, out);
     }
 
     /**
@@ -74,4 +67,32 @@ public class AABB implements CollisionShape {
     public Vector2 getSize() {
         return max.subtract(min);
     }
+
+    @Override
+    public float getMinX() {
+        return min.x;
+    }
+
+    @Override
+    public float getMinY() {
+        return min.y;
+    }
+
+    @Override
+    public float getMaxX() {
+        return max.x;
+    }
+
+    @Override
+    public float getMaxY() {
+        return max.y;
+    }
+
+    public float getWidth() {
+        return max.x - min.x;
+    }
+
+    public float getHeight() {
+        return max.y - min.y;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.gameengine.physics;
+
+import java.util.List;
+
+/**
+ * 宽相碰撞检测：从所有物理体中筛选出宽相包围盒（PhysicsBody.minX 等，已按整步移动距离扩展）
+ * 重叠且碰撞掩码允许的候选对，交给窄相精确检测
+ * 双方都在休眠的物体对不输出（见 PhysicsBody.shouldPair）
+ */
+interface Broadphase {
+    /**
+     * 每步积分前调用一次，更新内部结构并输出候选对（每对只输出一次，下标 a < b）
+     * @param bodies 按注册顺序排列的物理体（PhysicsBody.index 已是列表下标）
+     * @param out 输出的候选对（调用前已清空）
+     */
+    void findPairs(List<PhysicsBody> bodies, PairList out);
+}
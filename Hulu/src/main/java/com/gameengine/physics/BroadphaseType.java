@@ -0,0 +1,15 @@
+package com.gameengine.physics;
+
+/**
+ * 宽相检测算法（创建 PhysicsWorld 时选择）
+ */
+public enum BroadphaseType {
+    /** 逐对检查所有物理体，O(n²)，仅用于对照和少量物体 */
+    BRUTE_FORCE,
+    /** 均匀空间哈希网格，物体尺寸相近且分布较均匀时最快（默认） */
+    SPATIAL_HASH,
+    /** 沿X轴排序扫描，端点数组每步增量插入排序，适合物体每步移动较少的场景 */
+    SWEEP_AND_PRUNE,
+    /** 动态包围盒树（与物理世界的查询树共用），物体尺寸差异大或分布不均匀时表现稳定 */
+    DYNAMIC_TREE
+}
@@ -0,0 +1,22 @@
+package com.gameengine.physics;
+
+import java.util.List;
+
+/**
+ * 逐对遍历的宽相（原有的双重循环），作为其他宽相的对照基准
+ */
+final class BruteForceBroadphase implements Broadphase {
+    @Override
+    public void findPairs(List<PhysicsBody> bodies, PairList out) {
+        int count = bodies.size();
+        for (int i = 0; i < count; i++) {
+            PhysicsBody a = bodies.get(i);
+            for (int j = i + 1; j < count; j++) {
+                PhysicsBody b = bodies.get(j);
+                if (a.shouldPair(b) && a.boundsOverlap(b)) {
+                    out.add(i, j);
+                }
+            }
+        }
+    }
+}
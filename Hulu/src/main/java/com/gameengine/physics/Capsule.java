@@ -0,0 +1,93 @@
+package com.gameengine.physics;
+
+import com.gameengine.math.Vector2;
+
+/**
+ * 胶囊碰撞体：一条线段向四周扩展半径得到的形状，按外接矩形的尺寸创建
+ * 宽大于等于高时为水平胶囊（半径为高的一半），否则为竖直胶囊；位置为外接矩形的左上角
+ */
+public class Capsule implements CollisionShape {
+    private float x;
+    private float y;
+    private final float width;
+    private final float height;
+    private final float radius;
+
+    public Capsule(Vector2 position, Vector2 size) {
+        if (!(size.x > 0) || !(size.y > 0)) {
+            throw new IllegalArgumentException("size must be positive: " + size.x + "x" + size.y);
+        }
+        this.x = position.x;
+        this.y = position.y;
+        this.width = size.x;
+        this.height = size.y;
+        this.radius = Math.min(size.x, size.y) * 0.5f;
+    }
+
+    @Override
+    public ShapeType getType() {
+        return ShapeType.CAPSULE;
+    }
+
+    @Override
+    public boolean collidesWith(CollisionShape other) {
+        return ShapeDispatch.collides(this, other);
+    }
+
+    @Override
+    public Vector2 getSeparatingAxis(CollisionShape other, Vector2 out) {
+        return ShapeDispatch.separation(this, other, out);
+    }
+
+    @Override
+    public void updatePosition(Vector2 position) {
+        updatePosition(position.x, position.y);
+    }
+
+    @Override
+    public void updatePosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    // 中心线段的两个端点
+    public float getStartX() {
+        return x + radius;
+    }
+
+    public float getStartY() {
+        return y + radius;
+    }
+
+    public float getEndX() {
+        return x + width - radius;
+    }
+
+    public float getEndY() {
+        return y + height - radius;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    @Override
+    public float getMinX() {
+        return x;
+    }
+
+    @Override
+    public float getMinY() {
+        return y;
+    }
+
+    @Override
+    public float getMaxX() {
+        return x + width;
+    }
+
+    @Override
+    public float getMaxY() {
+        return y + height;
+    }
+}
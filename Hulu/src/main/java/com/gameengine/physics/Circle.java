@@ -0,0 +1,79 @@
+package com.gameengine.physics;
+
+import com.gameengine.math.Vector2;
+
+/**
+ * 圆形碰撞体：位置为外接正方形的左上角（与 AABB 和变换组件的约定一致），圆心在位置右下方半径处
+ */
+public class Circle implements CollisionShape {
+    private float x;
+    private float y;
+    private final float radius;
+
+    public Circle(Vector2 position, float radius) {
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("radius must be positive: " + radius);
+        }
+        this.x = position.x;
+        this.y = position.y;
+        this.radius = radius;
+    }
+
+    @Override
+    public ShapeType getType() {
+        return ShapeType.CIRCLE;
+    }
+
+    @Override
+    public boolean collidesWith(CollisionShape other) {
+        return ShapeDispatch.collides(this, other);
+    }
+
+    @Override
+    public Vector2 getSeparatingAxis(CollisionShape other, Vector2 out) {
+        return ShapeDispatch.separation(this, other, out);
+    }
+
+    @Override
+    public void updatePosition(Vector2 position) {
+        updatePosition(position.x, position.y);
+    }
+
+    @Override
+    public void updatePosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public float getCenterX() {
+        return x + radius;
+    }
+
+    public float getCenterY() {
+        return y + radius;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    @Override
+    public float getMinX() {
+        return x;
+    }
+
+    @Override
+    public float getMinY() {
+        return y;
+    }
+
+    @Override
+    public float getMaxX() {
+        return x + 2 * radius;
+    }
+
+    @Override
+    public float getMaxY() {
+        return y + 2 * radius;
+    }
+}
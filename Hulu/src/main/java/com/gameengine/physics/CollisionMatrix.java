@@ -0,0 +1,115 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+
+/**
+ * 碰撞矩阵：最多32个碰撞层，每层用一个 int 位集合记录可与之碰撞的层（第 n 位表示层 n）
+ * 矩阵始终对称，规则与物体的注册先后无关；游戏可以通过 defineLayer 增加自己的层（如道具、墙、护盾）
+ */
+public final class CollisionMatrix {
+    public static final int MAX_LAYERS = 32;
+
+    // 内置碰撞层
+    public static final int PLAYER = 0;
+    public static final int ENEMY = 1;
+    public static final int BULLET = 2;
+
+    private final int[] masks = new int[MAX_LAYERS];
+    private final String[] names = new String[MAX_LAYERS];
+    private int version; // 每次修改递增，物理世界据此刷新物理体的碰撞掩码
+
+    /**
+     * 创建只包含内置层的默认矩阵：玩家与敌人碰撞，玩家和敌人都与子弹层碰撞
+     * 旧规则按注册先后判断，会忽略子弹与之后才注册的敌人（如定时生成的敌人）之间的碰撞；
+     * 对称矩阵下这些子弹与新敌人也会做物理碰撞
+     */
+    public CollisionMatrix() {
+        names[PLAYER] = "Player";
+        names[ENEMY] = "Enemy";
+        names[BULLET] = "Bullet";
+        setCollides(PLAYER, ENEMY, true);
+        setCollides(PLAYER, BULLET, true);
+        setCollides(ENEMY, BULLET, true);
+    }
+
+    /**
+     * 定义新的碰撞层（新层默认不与任何层碰撞），名称已存在时返回已有的层
+     * @return 层编号
+     */
+    public int defineLayer(String name) {
+        int existing = getLayer(name);
+        if (existing >= 0) return existing;
+        for (int layer = 0; layer < MAX_LAYERS; layer++) {
+            if (names[layer] == null) {
+                names[layer] = name;
+                version++;
+                return layer;
+            }
+        }
+        throw new IllegalStateException("碰撞层已用完（最多" + MAX_LAYERS + "个）: " + name);
+    }
+
+    /**
+     * 按名称查找碰撞层
+     * @return 层编号，不存在时返回-1
+     */
+    public int getLayer(String name) {
+        for (int layer = 0; layer < MAX_LAYERS; layer++) {
+            if (name.equals(names[layer])) return layer;
+        }
+        return -1;
+    }
+
+    public String getLayerName(int layer) {
+        checkLayer(layer);
+        return names[layer];
+    }
+
+    /**
+     * 设置两个层之间是否碰撞（对称）
+     */
+    public void setCollides(int layerA, int layerB, boolean collides) {
+        checkLayer(layerA);
+        checkLayer(layerB);
+        if (collides) {
+            masks[layerA] |= 1 << layerB;
+            masks[layerB] |= 1 << layerA;
+        } else {
+            masks[layerA] &= ~(1 << layerB);
+            masks[layerB] &= ~(1 << layerA);
+        }
+        version++;
+    }
+
+    public boolean collides(int layerA, int layerB) {
+        checkLayer(layerA);
+        checkLayer(layerB);
+        return (masks[layerA] & (1 << layerB)) != 0;
+    }
+
+    /**
+     * 与指定层碰撞的所有层的位集合
+     */
+    public int getMask(int layer) {
+        checkLayer(layer);
+        return masks[layer];
+    }
+
+    /**
+     * 清空所有碰撞规则（层名称保留）
+     */
+    public void clear() {
+        Arrays.fill(masks, 0);
+        version++;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    static void checkLayer(int layer) {
+        if (layer < 0 || layer >= MAX_LAYERS) {
+            throw new IllegalArgumentException("碰撞层必须在0~" + (MAX_LAYERS - 1) + "之间: " + layer);
+        }
+    }
+}
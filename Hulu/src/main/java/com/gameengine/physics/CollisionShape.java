@@ -4,10 +4,23 @@ package com.gameengine.physics;
 import com.gameengine.math.Vector2;
 
 public interface CollisionShape {
+    // 形状类型（窄相按类型序号查分派表）
+    ShapeType getType();
     // 检测与另一个碰撞体是否碰撞
     boolean collidesWith(CollisionShape other);
-    // 获取碰撞后的分离向量（用于解决穿透）
-    Vector2 getSeparatingAxis(CollisionShape other);
+    // 获取碰撞后的分离向量（用于解决穿透），结果写入out并返回out，不分配新对象
+    Vector2 getSeparatingAxis(CollisionShape other, Vector2 out);
+    // 获取碰撞后的分离向量（分配新向量的便捷版本）
+    default Vector2 getSeparatingAxis(CollisionShape other) {
+        return getSeparatingAxis(other, new Vector2());
+    }
     // 更新碰撞体位置（与TransformComponent同步）
     void updatePosition(Vector2 position);
-}
\ No newline at end of file
+    // 原地更新位置（不分配对象），位置为包围盒左上角
+    void updatePosition(float x, float y);
+    // 轴对齐包围盒（供宽相检测使用）
+    float getMinX();
+    float getMinY();
+    float getMaxX();
+    float getMaxY();
+}
@@ -0,0 +1,509 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+
+/**
+ * 动态包围盒树（BVH）：叶子节点保存物体放大后的包围盒（fat AABB），物体在放大范围内移动时不需要更新树；
+ * 超出范围时只把该叶子删除后重新插入，插入按周长代价选择兄弟节点，并沿路径做旋转保持平衡
+ * 代理编号即叶子节点编号，销毁后会被复用
+ * 修改操作只能在单线程中进行；树不被修改时可以从多个线程同时查询
+ */
+public class DynamicAABBTree {
+    /** 叶子包围盒向四周放大的距离（像素） */
+    public static final float DEFAULT_MARGIN = 4.0f;
+
+    /**
+     * 区域/点查询回调
+     */
+    @FunctionalInterface
+    public interface QueryCallback {
+        /**
+         * @return 是否继续查询
+         */
+        boolean visit(int proxyId);
+    }
+
+    /**
+     * 射线查询回调
+     */
+    @FunctionalInterface
+    public interface RaycastCallback {
+        /**
+         * 射线经过代理的包围盒时调用
+         * @param maxFraction 当前射线长度比例上限
+         * @return 负数表示忽略该代理；0表示结束查询；正数表示把射线截短到该比例（通常为命中比例）
+         */
+        float raycast(int proxyId, float maxFraction);
+    }
+
+    private static final int NULL = -1;
+    // 每个线程复用的遍历栈；查询期间借出，回调中嵌套查询时另建新栈
+    private static final ThreadLocal<int[]> STACK = new ThreadLocal<>();
+
+    private final float margin;
+    private int root = NULL;
+
+    // 节点数据（结构数组）
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    private int[] parent;      // 父节点；空闲节点用作空闲链表的下一个
+    private int[] child1;      // 叶子节点为 NULL
+    private int[] child2;
+    private int[] height;      // 叶子为0，空闲节点为-1
+    private Object[] userData;
+    private int capacity;
+    private int freeList;
+    private int proxyCount;
+
+    public DynamicAABBTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    public DynamicAABBTree(float margin) {
+        this.margin = Math.max(0, margin);
+        this.capacity = 16;
+        this.minX = new float[capacity];
+        this.minY = new float[capacity];
+        this.maxX = new float[capacity];
+        this.maxY = new float[capacity];
+        this.parent = new int[capacity];
+        this.child1 = new int[capacity];
+        this.child2 = new int[capacity];
+        this.height = new int[capacity];
+        this.userData = new Object[capacity];
+        linkFreeNodes(0);
+    }
+
+    /**
+     * 为物体创建代理，包围盒会按边距放大
+     * @return 代理编号
+     */
+    public int createProxy(float minX, float minY, float maxX, float maxY, Object data) {
+        int proxy = allocateNode();
+        setFat(proxy, minX, minY, maxX, maxY);
+        userData[proxy] = data;
+        height[proxy] = 0;
+        insertLeaf(proxy);
+        proxyCount++;
+        return proxy;
+    }
+
+    public void destroyProxy(int proxyId) {
+        checkLeaf(proxyId);
+        removeLeaf(proxyId);
+        freeNode(proxyId);
+        proxyCount--;
+    }
+
+    /**
+     * 物体移动后更新代理：新的包围盒仍在放大包围盒内时什么都不做
+     * @return 是否重新插入了叶子
+     */
+    public boolean moveProxy(int proxyId, float minX, float minY, float maxX, float maxY) {
+        checkLeaf(proxyId);
+        if (this.minX[proxyId] <= minX && this.minY[proxyId] <= minY
+            && this.maxX[proxyId] >= maxX && this.maxY[proxyId] >= maxY) {
+            return false;
+        }
+        removeLeaf(proxyId);
+        setFat(proxyId, minX, minY, maxX, maxY);
+        insertLeaf(proxyId);
+        return true;
+    }
+
+    public Object getUserData(int proxyId) {
+        checkLeaf(proxyId);
+        return userData[proxyId];
+    }
+
+    public float getFatMinX(int proxyId) {
+        return minX[proxyId];
+    }
+
+    public float getFatMinY(int proxyId) {
+        return minY[proxyId];
+    }
+
+    public float getFatMaxX(int proxyId) {
+        return maxX[proxyId];
+    }
+
+    public float getFatMaxY(int proxyId) {
+        return maxY[proxyId];
+    }
+
+    public int getProxyCount() {
+        return proxyCount;
+    }
+
+    /**
+     * 树高（空树为0，只有一个叶子为1）
+     */
+    public int getHeight() {
+        return root == NULL ? 0 : height[root] + 1;
+    }
+
+    /**
+     * 查询放大包围盒与指定区域重叠的所有代理
+     */
+    public void query(float qMinX, float qMinY, float qMaxX, float qMaxY, QueryCallback callback) {
+        if (root == NULL) return;
+        int[] stack = borrowStack();
+        try {
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int node = stack[--top];
+                if (minX[node] > qMaxX || maxX[node] < qMinX || minY[node] > qMaxY || maxY[node] < qMinY) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    if (!callback.visit(node)) return;
+                } else {
+                    if (top + 2 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = child1[node];
+                    stack[top++] = child2[node];
+                }
+            }
+        } finally {
+            STACK.set(stack);
+        }
+    }
+
+    /**
+     * 查询放大包围盒包含指定点的所有代理
+     */
+    public void queryPoint(float x, float y, QueryCallback callback) {
+        query(x, y, x, y, callback);
+    }
+
+    /**
+     * 沿线段 (x1,y1)->(x2,y2) 查询包围盒与线段相交的代理，回调可截短线段以只保留最近的命中
+     */
+    public void raycast(float x1, float y1, float x2, float y2, RaycastCallback callback) {
+        if (root == NULL) return;
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float maxFraction = 1.0f;
+        int[] stack = borrowStack();
+        try {
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int node = stack[--top];
+                if (segmentEntry(x1, y1, dx, dy, maxFraction, minX[node], minY[node], maxX[node], maxY[node]) < 0) {
+                    continue;
+                }
+                if (child1[node] == NULL) {
+                    float value = callback.raycast(node, maxFraction);
+                    if (value == 0) return;
+                    if (value > 0) {
+                        maxFraction = Math.min(maxFraction, value);
+                    }
+                } else {
+                    if (top + 2 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = child1[node];
+                    stack[top++] = child2[node];
+                }
+            }
+        } finally {
+            STACK.set(stack);
+        }
+    }
+
+    private static int[] borrowStack() {
+        int[] stack = STACK.get();
+        if (stack == null) {
+            return new int[64];
+        }
+        STACK.set(null);
+        return stack;
+    }
+
+    /**
+     * 线段与包围盒的相交比例（slab 算法）
+     * @return 线段进入包围盒时的比例（起点在盒内为0），不相交或超过 maxFraction 时返回-1
+     */
+    public static float segmentEntry(float x1, float y1, float dx, float dy, float maxFraction,
+                                     float minX, float minY, float maxX, float maxY) {
+        float tMin = 0;
+        float tMax = maxFraction;
+        if (dx == 0) {
+            if (x1 < minX || x1 > maxX) return -1;
+        } else {
+            float inv = 1.0f / dx;
+            float t1 = (minX - x1) * inv;
+            float t2 = (maxX - x1) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) return -1;
+        }
+        if (dy == 0) {
+            if (y1 < minY || y1 > maxY) return -1;
+        } else {
+            float inv = 1.0f / dy;
+            float t1 = (minY - y1) * inv;
+            float t2 = (maxY - y1) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax) return -1;
+        }
+        return tMin;
+    }
+
+    private void setFat(int node, float minX, float minY, float maxX, float maxY) {
+        this.minX[node] = minX - margin;
+        this.minY[node] = minY - margin;
+        this.maxX[node] = maxX + margin;
+        this.maxY[node] = maxY + margin;
+    }
+
+    private void checkLeaf(int proxyId) {
+        if (proxyId < 0 || proxyId >= capacity || height[proxyId] != 0) {
+            throw new IllegalArgumentException("invalid proxy id: " + proxyId);
+        }
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL) {
+            int oldCapacity = capacity;
+            capacity *= 2;
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            child1 = Arrays.copyOf(child1, capacity);
+            child2 = Arrays.copyOf(child2, capacity);
+            height = Arrays.copyOf(height, capacity);
+            userData = Arrays.copyOf(userData, capacity);
+            linkFreeNodes(oldCapacity);
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        height[node] = 0;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        parent[node] = freeList;
+        height[node] = -1;
+        userData[node] = null;
+        freeList = node;
+    }
+
+    private void linkFreeNodes(int from) {
+        for (int i = from; i < capacity - 1; i++) {
+            parent[i] = i + 1;
+            height[i] = -1;
+        }
+        parent[capacity - 1] = NULL;
+        height[capacity - 1] = -1;
+        freeList = from;
+    }
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parent[root] = NULL;
+            return;
+        }
+
+        // 自顶向下按周长代价寻找最合适的兄弟节点
+        float lMinX = minX[leaf];
+        float lMinY = minY[leaf];
+        float lMaxX = maxX[leaf];
+        float lMaxY = maxY[leaf];
+        int index = root;
+        while (child1[index] != NULL) {
+            int c1 = child1[index];
+            int c2 = child2[index];
+
+            float area = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+            float combinedArea = combinedPerimeter(index, lMinX, lMinY, lMaxX, lMaxY);
+            // 在此处新建父节点的代价
+            float cost = 2.0f * combinedArea;
+            // 继续下降时祖先包围盒扩大的代价
+            float inheritanceCost = 2.0f * (combinedArea - area);
+
+            float cost1 = descendCost(c1, lMinX, lMinY, lMaxX, lMaxY) + inheritanceCost;
+            float cost2 = descendCost(c2, lMinX, lMinY, lMaxX, lMaxY) + inheritanceCost;
+            if (cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+        int sibling = index;
+
+        // 新建父节点容纳兄弟节点和新叶子
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        userData[newParent] = null;
+        minX[newParent] = Math.min(lMinX, minX[sibling]);
+        minY[newParent] = Math.min(lMinY, minY[sibling]);
+        maxX[newParent] = Math.max(lMaxX, maxX[sibling]);
+        maxY[newParent] = Math.max(lMaxY, maxY[sibling]);
+        height[newParent] = height[sibling] + 1;
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        if (oldParent != NULL) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+
+        refit(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+        int p = parent[leaf];
+        int grandParent = parent[p];
+        int sibling = child1[p] == leaf ? child2[p] : child1[p];
+
+        if (grandParent != NULL) {
+            // 用兄弟节点替换父节点
+            if (child1[grandParent] == p) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(p);
+            refit(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(p);
+        }
+        parent[leaf] = NULL;
+    }
+
+    // 从指定节点向上平衡并重新计算包围盒和高度
+    private void refit(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            int c1 = child1[index];
+            int c2 = child2[index];
+            height[index] = 1 + Math.max(height[c1], height[c2]);
+            minX[index] = Math.min(minX[c1], minX[c2]);
+            minY[index] = Math.min(minY[c1], minY[c2]);
+            maxX[index] = Math.max(maxX[c1], maxX[c2]);
+            maxY[index] = Math.max(maxY[c1], maxY[c2]);
+            index = parent[index];
+        }
+    }
+
+    /**
+     * 左右子树高度差超过1时做一次旋转，返回旋转后位于原位置的节点
+     */
+    private int balance(int a) {
+        if (child1[a] == NULL || height[a] < 2) {
+            return a;
+        }
+        int b = child1[a];
+        int c = child2[a];
+        int diff = height[c] - height[b];
+
+        if (diff > 1) {
+            // 把C旋转上来
+            int f = child1[c];
+            int g = child2[c];
+            child1[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+            if (height[f] > height[g]) {
+                child2[c] = f;
+                child2[a] = g;
+                parent[g] = a;
+                combine(a, b, g);
+                combine(c, a, f);
+            } else {
+                child2[c] = g;
+                child2[a] = f;
+                parent[f] = a;
+                combine(a, b, f);
+                combine(c, a, g);
+            }
+            return c;
+        }
+        if (diff < -1) {
+            // 把B旋转上来
+            int d = child1[b];
+            int e = child2[b];
+            child1[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+            if (height[d] > height[e]) {
+                child2[b] = d;
+                child1[a] = e;
+                parent[e] = a;
+                combine(a, c, e);
+                combine(b, a, d);
+            } else {
+                child2[b] = e;
+                child1[a] = d;
+                parent[d] = a;
+                combine(a, c, d);
+                combine(b, a, e);
+            }
+            return b;
+        }
+        return a;
+    }
+
+    private void replaceChild(int p, int oldChild, int newChild) {
+        if (p == NULL) {
+            root = newChild;
+        } else if (child1[p] == oldChild) {
+            child1[p] = newChild;
+        } else {
+            child2[p] = newChild;
+        }
+    }
+
+    // 节点包围盒和高度取两个子节点的合并
+    private void combine(int node, int x, int y) {
+        minX[node] = Math.min(minX[x], minX[y]);
+        minY[node] = Math.min(minY[x], minY[y]);
+        maxX[node] = Math.max(maxX[x], maxX[y]);
+        maxY[node] = Math.max(maxY[x], maxY[y]);
+        height[node] = 1 + Math.max(height[x], height[y]);
+    }
+
+    private float descendCost(int child, float lMinX, float lMinY, float lMaxX, float lMaxY) {
+        float combined = combinedPerimeter(child, lMinX, lMinY, lMaxX, lMaxY);
+        if (child1[child] == NULL) {
+            return combined;
+        }
+        return combined - perimeter(minX[child], minY[child], maxX[child], maxY[child]);
+    }
+
+    private float combinedPerimeter(int node, float lMinX, float lMinY, float lMaxX, float lMaxY) {
+        return perimeter(Math.min(minX[node], lMinX), Math.min(minY[node], lMinY),
+                         Math.max(maxX[node], lMaxX), Math.max(maxY[node], lMaxY));
+    }
+
+    private static float perimeter(float minX, float minY, float maxX, float maxY) {
+        return 2.0f * ((maxX - minX) + (maxY - minY));
+    }
+}
@@ -0,0 +1,61 @@
+package com.gameengine.physics;
+
+import java.util.List;
+
+/**
+ * 基于动态包围盒树的宽相：树由 PhysicsWorld 随物理体注册/移除/移动原地维护，
+ * 这里只用非休眠物体的包围盒查询树（休眠物体不发起查询），
+ * 非休眠的对方只在下标比自己大时输出、休眠的对方总是输出，保证每对只输出一次
+ */
+final class DynamicTreeBroadphase implements Broadphase, DynamicAABBTree.QueryCallback {
+    private final DynamicAABBTree tree;
+
+    // 当前查询的物体
+    private List<PhysicsBody> bodies;
+    private PairList out;
+    private PhysicsBody current;
+
+    DynamicTreeBroadphase(DynamicAABBTree tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public void findPairs(List<PhysicsBody> bodies, PairList out) {
+        int count = bodies.size();
+        // 树里存的是碰撞体的放大包围盒，对方的宽相包围盒可能超出它；
+        // 查询框再放大本步最大的扩展量，保证宽相包围盒重叠的物体都能被查到
+        float extendX = 0;
+        float extendY = 0;
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = bodies.get(i);
+            if (body.sleeping) continue; // 休眠物体的宽相包围盒就是碰撞体包围盒
+            CollisionShape shape = body.collisionShape;
+            extendX = Math.max(extendX, Math.max(shape.getMinX() - body.minX, body.maxX - shape.getMaxX()));
+            extendY = Math.max(extendY, Math.max(shape.getMinY() - body.minY, body.maxY - shape.getMaxY()));
+        }
+        this.bodies = bodies;
+        this.out = out;
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = bodies.get(i);
+            if (body.sleeping) continue;
+            current = body;
+            tree.query(body.minX - extendX, body.minY - extendY, body.maxX + extendX, body.maxY + extendY, this);
+        }
+        this.bodies = null;
+        this.out = null;
+        this.current = null;
+    }
+
+    @Override
+    public boolean visit(int proxyId) {
+        PhysicsBody other = (PhysicsBody) tree.getUserData(proxyId);
+        int a = current.index;
+        int b = other.index;
+        if (b == a || b >= bodies.size() || bodies.get(b) != other) return true;
+        if (b < a && !other.sleeping) return true; // 由对方的查询输出
+        if (current.canCollide(other) && current.boundsOverlap(other)) {
+            out.add(Math.min(a, b), Math.max(a, b));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+
+/**
+ * 候选碰撞对列表：按物理体下标对 (a, b)，a < b 存放，排序后与逐对遍历的顺序一致
+ */
+final class PairList {
+    private long[] keys = new long[256];
+    private int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int a, int b) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = ((long) a << 32) | b;
+    }
+
+    /**
+     * 向已排序的列表插入一对并保持有序，已存在时不插入（用于补充个别候选对）
+     * @return 是否插入
+     */
+    boolean insert(int a, int b) {
+        long key = ((long) a << 32) | b;
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos >= 0) return false;
+        pos = -pos - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        keys[pos] = key;
+        size++;
+        return true;
+    }
+
+    /**
+     * 按 (a, b) 升序排序，即物理体注册顺序
+     */
+    void sort() {
+        Arrays.sort(keys, 0, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getA(int i) {
+        return (int) (keys[i] >>> 32);
+    }
+
+    int getB(int i) {
+        return (int) keys[i];
+    }
+}
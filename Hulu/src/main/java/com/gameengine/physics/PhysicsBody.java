@@ -0,0 +1,76 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+
+/**
+ * 物理体：关联游戏对象、物理组件、碰撞体（由 PhysicsWorld 管理并池化复用）
+ */
+final class PhysicsBody {
+    GameObject gameObject;
+    PhysicsComponent physics;
+    TransformComponent transform;
+    CollisionShape collisionShape;
+    int collisionLayer; // 碰撞层
+    int categoryBits;   // 所属类别位（1 << collisionLayer）
+    int maskBits;       // 可与之碰撞的类别位集合
+    boolean customMask; // 掩码由注册时指定，碰撞矩阵变化时不刷新
+    boolean removed;    // 已移除，等待物理世界在下一步开始时批量压缩
+    boolean continuous; // 是否做连续碰撞检测（快速移动的子弹）
+    boolean sleeping;   // 本步开始时在休眠且尚未被唤醒（宽相据此跳过双方都休眠的物体对）
+    float sweepX;       // 本步积分前的位置（连续碰撞检测用）
+    float sweepY;
+    float syncedX;      // 碰撞体上次同步时变换组件的位置（休眠物体据此发现被外部移动）
+    float syncedY;
+    // 宽相包围盒：碰撞体包围盒按本次 update 内可能的移动距离向两侧扩展（休眠物体为碰撞体包围盒）
+    float minX;
+    float minY;
+    float maxX;
+    float maxY;
+    int index;          // 本步在物理体列表中的下标（由 PhysicsWorld 在每步开始时设置）
+    // 以下由宽相维护
+    int proxy = -1;     // 在持久化宽相结构中的代理编号，-1表示尚未加入
+    int stamp;          // 最近一次出现在物理体列表中的步号（用于发现已移除的物理体）
+    int treeProxy = -1; // 在物理世界查询树中的代理编号（由 PhysicsWorld 维护）
+
+    void set(GameObject obj, PhysicsComponent physics,
+             TransformComponent transform, CollisionShape shape, int layer) {
+        this.gameObject = obj;
+        this.physics = physics;
+        this.transform = transform;
+        this.collisionShape = shape;
+        this.collisionLayer = layer;
+        this.categoryBits = 1 << layer;
+        this.maskBits = 0;
+        this.customMask = false;
+        this.removed = false;
+        this.continuous = layer == CollisionMatrix.BULLET;
+        this.sleeping = false;
+    }
+
+    /**
+     * 双方的类别都在对方的掩码中时才碰撞
+     */
+    boolean canCollide(PhysicsBody other) {
+        return (categoryBits & other.maskBits) != 0 && (other.categoryBits & maskBits) != 0;
+    }
+
+    /**
+     * 宽相包围盒是否重叠
+     */
+    boolean boundsOverlap(PhysicsBody other) {
+        return minX <= other.maxX && maxX >= other.minX && minY <= other.maxY && maxY >= other.minY;
+    }
+
+    /**
+     * 宽相是否输出这一对：碰撞掩码允许，且至少一方没有休眠
+     */
+    boolean shouldPair(PhysicsBody other) {
+        return canCollide(other) && !(sleeping && other.sleeping);
+    }
+
+    void clear() {
+        set(null, null, null, null, 0);
+    }
+}
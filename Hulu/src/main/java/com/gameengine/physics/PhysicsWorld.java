@@ -1,113 +1,542 @@
 package com.gameengine.physics;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import com.gameengine.components.MotionStore;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.core.GameObject;
+import com.gameengine.core.ObjectPool;
 import com.gameengine.math.Vector2;
+import com.gameengine.profiling.PhysicsStepEvent;
 import com.gameengine.scene.Scene;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public class PhysicsWorld {
+    /** 查询时匹配所有碰撞层的掩码 */
+    public static final int ALL_LAYERS = -1;
+
     private Scene scene;
     private Vector2 globalGravity; // 全局重力（替代每个组件单独设置）
     private float timeScale = 1.0f; // 时间缩放（用于慢动作）
-    private List<PhysicsBody> physicsBodies = new ArrayList<>(); // 物理体列表
-
-    // 物理体：关联游戏对象、物理组件、碰撞体
-    private static class PhysicsBody {
-        GameObject gameObject;
-        PhysicsComponent physics;
-        TransformComponent transform;
-        CollisionShape collisionShape;
-        int collisionLayer; // 碰撞层（用于过滤）
+    private List<PhysicsBody> physicsBodies = new ArrayList<>(); // 物理体列表（按注册顺序）
+    // 游戏对象 -> 未移除的物理体；移除只做标记，每步开始时批量压缩列表
+    private final Map<GameObject, PhysicsBody> bodiesByObject = new IdentityHashMap<>();
+    private int pendingRemovals;   // 已标记移除、尚未压缩的物理体数量
+    private int lastRemovedBodies; // 上一步压缩掉的物理体数量
+    private int lastPairTests; // 上一步的碰撞对检测次数
+    private int lastContacts;  // 上一步的实际接触数
+    private int[] motionEntities = new int[64]; // 本步批量积分的实体编号（复用缓冲区）
+    private final PhysicsStepEvent stepEvent = new PhysicsStepEvent(); // 复用的JFR事件，提交前写入全部字段
+    // 连续碰撞检测：本步需要扫掠的物理体（复用缓冲区）
+    private static final float CCD_SLOP = 0.5f; // 命中后推进到目标内部的距离（像素），保证离散检测得到非零分离向量
+    private PhysicsBody[] sweepBodies = new PhysicsBody[16];
+    private int sweepCount;
+    private final SweepQuery sweepQuery = new SweepQuery();
+    private int lastContinuousHits; // 上一步连续碰撞检测拦截的次数
+    private int continuousHits;     // 本步累计（跨子步）
+    private int stepPairTests;      // 本步累计的窄相检测次数（跨子步和迭代）
+    // 休眠：速度持续低于阈值的物体跳过积分、重力、碰撞体同步和边界检查，接触、受力或被移动时唤醒
+    private static final float SLEEP_SPEED = 2.0f;     // 速度阈值（像素/秒）
+    private static final float TIME_TO_SLEEP = 0.5f;   // 低于阈值持续多久后休眠（秒）
+    private boolean sleepingEnabled = true;
+    private int lastSleepingBodies; // 上一步结束时休眠的物体数
+    // 本步参与逐物体处理（重力、积分、同步、边界、休眠判定）的非休眠物体，步内被唤醒的物体追加到末尾
+    private PhysicsBody[] awakeBodies = new PhysicsBody[64];
+    private int awakeCount;
+    // 子步：每次 update 把时间分成若干子步积分，每个子步做若干轮接触求解；
+    // 宽相在积分前做一次，包围盒按整步的移动距离扩展，所有子步和迭代复用同一份候选对
+    private int substeps = 1;
+    private int solverIterations = 1;
+    private float stepBudgetMillis;  // 每次 update 的时间预算（毫秒），0表示不限制
+    private int lastSubsteps;        // 上一步实际执行的子步数
+    // 复用的临时向量，避免每帧每个物体/接触分配对象（仅在物理线程内使用）
+    private final Vector2 gravityForce = new Vector2();
+    private final Vector2 separation = new Vector2();
+    private final Vector2 normal = new Vector2();
+    // 物理体对象池（子弹等短生命周期物体频繁注册/移除）
+    private final ObjectPool<PhysicsBody> bodyPool = new ObjectPool<>(PhysicsBody::new, PhysicsBody::clear, null, 256);
+    // 宽相检测：只把包围盒重叠且碰撞掩码允许的物体对交给窄相
+    private static final float DEFAULT_CELL_SIZE = 64; // 空间哈希格子边长（约为角色尺寸的3倍）
+    private final BroadphaseType broadphaseType;
+    private final Broadphase broadphase;
+    private final PairList pairs = new PairList();
+    // 所有物理体的动态包围盒树：注册/移除/移动时原地更新，供点/区域/射线查询和树宽相使用
+    private final DynamicAABBTree tree = new DynamicAABBTree();
+    // 碰撞层规则（修改后在下一步开始时刷新物理体的碰撞掩码）
+    private final CollisionMatrix collisionMatrix = new CollisionMatrix();
+    private int matrixVersion;
+    // 查询回调：每个线程复用一份，点/区域/最近/射线查询不分配内存（回调里不要再发起同类查询）
+    private final ThreadLocal<RegionSearch> regionSearch = ThreadLocal.withInitial(RegionSearch::new);
+    private final ThreadLocal<NearestSearch> nearestSearch = ThreadLocal.withInitial(NearestSearch::new);
+    private final ThreadLocal<RaySearch> raySearch = ThreadLocal.withInitial(RaySearch::new);
 
-        public PhysicsBody(GameObject obj, PhysicsComponent physics, 
-                          TransformComponent transform, CollisionShape shape, int layer) {
-            this.gameObject = obj;
-            this.physics = physics;
-            this.transform = transform;
-            this.collisionShape = shape;
-            this.collisionLayer = layer;
-        }
+    public PhysicsWorld(Scene scene) {
+        this(scene, BroadphaseType.SPATIAL_HASH);
     }
 
-    public PhysicsWorld(Scene scene) {
+    /**
+     * 指定宽相检测算法创建物理世界
+     */
+    public PhysicsWorld(Scene scene, BroadphaseType broadphaseType) {
         this.scene = scene;
+        this.broadphaseType = broadphaseType;
+        switch (broadphaseType) {
+            case BRUTE_FORCE:
+                this.broadphase = new BruteForceBroadphase();
+                break;
+            case SWEEP_AND_PRUNE:
+                this.broadphase = new SweepAndPrune();
+                break;
+            case DYNAMIC_TREE:
+                this.broadphase = new DynamicTreeBroadphase(tree);
+                break;
+            case SPATIAL_HASH:
+            default:
+                this.broadphase = new SpatialHashGrid(DEFAULT_CELL_SIZE);
+                break;
+        }
         this.globalGravity = new Vector2(0, 9.8f * 100); // 放大重力效果（像素/秒²）
+        this.matrixVersion = collisionMatrix.getVersion();
     }
 
-    // 注册物理体（在场景初始化时调用）
+    // 注册物理体（在场景初始化时调用），碰撞掩码取碰撞矩阵中该层的规则
     public void registerPhysicsBody(GameObject obj, CollisionShape shape, int collisionLayer) {
+        registerBody(obj, shape, collisionLayer, 0, false);
+    }
+
+    /**
+     * 注册物理体并单独指定碰撞掩码（第 n 位表示与层 n 碰撞），不随碰撞矩阵变化
+     * 对方的掩码也必须包含本物体的层才会碰撞
+     */
+    public void registerPhysicsBody(GameObject obj, CollisionShape shape, int collisionLayer, int maskBits) {
+        registerBody(obj, shape, collisionLayer, maskBits, true);
+    }
+
+    private void registerBody(GameObject obj, CollisionShape shape, int collisionLayer, int maskBits, boolean customMask) {
+        CollisionMatrix.checkLayer(collisionLayer);
         PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
         TransformComponent transform = obj.getComponent(TransformComponent.class);
         if (physics != null && transform != null) {
-            physicsBodies.add(new PhysicsBody(obj, physics, transform, shape, collisionLayer));
+            // 重复注册时替换原有的物理体
+            PhysicsBody previous = bodiesByObject.get(obj);
+            if (previous != null) {
+                markRemoved(previous);
+            }
+            PhysicsBody body = bodyPool.acquire();
+            body.set(obj, physics, transform, shape, collisionLayer);
+            body.customMask = customMask;
+            body.maskBits = customMask ? maskBits : collisionMatrix.getMask(collisionLayer);
+            body.treeProxy = tree.createProxy(shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY(), body);
+            physicsBodies.add(body);
+            bodiesByObject.put(obj, body);
+        }
+    }
+
+    /**
+     * 移除游戏对象的物理体：立即停止参与查询，下一步开始时从列表中压缩掉（保持其余物理体的注册顺序）
+     * 已销毁的游戏对象不需要手动移除，物理世界会自动回收它们的物理体
+     * @return 是否找到并移除
+     */
+    public boolean unregisterPhysicsBody(GameObject obj) {
+        PhysicsBody body = bodiesByObject.get(obj);
+        if (body == null) return false;
+        markRemoved(body);
+        return true;
+    }
+
+    private void markRemoved(PhysicsBody body) {
+        body.removed = true;
+        bodiesByObject.remove(body.gameObject, body);
+        pendingRemovals++;
+    }
+
+    // 批量压缩：去掉已标记移除和游戏对象已销毁的物理体，一次遍历完成，保持注册顺序
+    // 同一遍历中收集本步的非休眠物体：休眠物体之后只参与宽相，不再进入任何逐物体循环
+    private void compactBodies() {
+        int count = physicsBodies.size();
+        int kept = 0;
+        awakeCount = 0;
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = physicsBodies.get(i);
+            if (!body.removed && body.gameObject.isDestroyed()) {
+                markRemoved(body);
+            }
+            if (body.removed) {
+                releaseBody(body);
+            } else {
+                if (kept != i) {
+                    physicsBodies.set(kept, body);
+                }
+                body.index = kept++;
+                collectAwake(body);
+            }
         }
+        // 从末尾逐个删除，不为 subList 视图分配对象
+        for (int i = count - 1; i >= kept; i--) {
+            physicsBodies.remove(i);
+        }
+        lastRemovedBodies = count - kept;
+        pendingRemovals = 0;
+    }
+
+    // 休眠物体位置未变时标记为休眠并跳过；被外部移动（如重置位置）时唤醒；其余物体加入本步的处理列表
+    private void collectAwake(PhysicsBody body) {
+        if (body.physics.isSleeping()) {
+            if (body.transform.getX() == body.syncedX && body.transform.getY() == body.syncedY) {
+                body.sleeping = true;
+                return;
+            }
+            body.physics.wakeUp();
+        }
+        body.sleeping = false;
+        appendAwake(body);
+    }
+
+    // 步内被接触唤醒的休眠物体加入处理列表，之后的子步正常积分
+    private void wake(PhysicsBody body) {
+        if (!body.sleeping) return;
+        body.sleeping = false;
+        body.physics.wakeUp();
+        appendAwake(body);
+    }
+
+    private void appendAwake(PhysicsBody body) {
+        if (awakeCount == awakeBodies.length) {
+            awakeBodies = Arrays.copyOf(awakeBodies, awakeCount * 2);
+        }
+        awakeBodies[awakeCount++] = body;
+    }
+
+    // 物理体离开世界：从包围盒树删除后归还对象池
+    private void releaseBody(PhysicsBody body) {
+        tree.destroyProxy(body.treeProxy);
+        body.treeProxy = -1;
+        bodyPool.release(body);
     }
 
     // 物理更新主逻辑（替代GameLogic.updatePhysics）
     public void update(float deltaTime) {
+        PhysicsStepEvent event = stepEvent;
+        event.begin();
         deltaTime *= timeScale; // 应用时间缩放
+        compactBodies();
+        refreshCollisionMasks();
+
+        // 宽相在积分前执行一次：包围盒覆盖整步的移动，之后所有子步开始的接触都在候选对中
+        syncShapes(); // 步间被外部移动的物体先同步碰撞体
+        findPairs(deltaTime);
+
+        // 1~4. 按子步积分并求解接触；超出时间预算时把剩余时间合并为最后一个单轮求解的子步
+        long budgetNanos = (long) (stepBudgetMillis * 1_000_000L);
+        long start = System.nanoTime();
+        float remaining = deltaTime;
+        float substepTime = deltaTime / substeps;
+        stepPairTests = 0;
+        int executed = 0;
+        continuousHits = 0;
+        while (executed < substeps) {
+            boolean overBudget = budgetNanos > 0 && executed > 0 && System.nanoTime() - start > budgetNanos;
+            boolean last = overBudget || executed == substeps - 1;
+            float h = last ? remaining : substepTime;
+
+            // 1. 应用全局重力
+            applyGravity();
+
+            // 2. 更新所有物体的运动状态（先记录需要连续碰撞检测的物体的起点）
+            beginSweeps();
+            updateMotions(h, deltaTime > 0 ? h / deltaTime : 1.0f);
+
+            // 3. 连续碰撞检测：快速子弹沿本子步的移动路径找到最早的命中，停在命中处
+            solveContinuousCollisions();
+
+            // 4. 处理候选对中的碰撞
+            resolveContacts(overBudget ? 1 : solverIterations);
+
+            remaining -= h;
+            executed++;
+            if (last) break;
+        }
+        lastPairTests = stepPairTests;
+        lastSubsteps = executed;
+        lastContinuousHits = continuousHits;
 
-        // 1. 应用全局重力
-        applyGravity();
-
-        // 2. 更新所有物体的运动状态
-        updateMotions(deltaTime);
+        // 5. 边界检查（替代原GameLogic中的边界逻辑）
+        checkBoundaries();
 
-        // 3. 检测并处理碰撞
-        detectAndResolveCollisions();
+        // 6. 碰撞结算和边界修正后的位置写回包围盒树，供本帧的查询使用
+        syncShapes();
+
+        // 7. 更新休眠状态
+        updateSleeping(deltaTime);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.deltaTime = deltaTime;
+            event.bodyCount = physicsBodies.size();
+            event.removedBodies = lastRemovedBodies;
+            event.sleepingBodies = lastSleepingBodies;
+            event.pairTests = lastPairTests;
+            event.contacts = lastContacts;
+            event.continuousHits = lastContinuousHits;
+            event.substeps = lastSubsteps;
+            event.commit();
+        }
+    }
 
-        // 4. 边界检查（替代原GameLogic中的边界逻辑）
-        checkBoundaries();
+    // 碰撞矩阵修改后，把新规则写入未单独指定掩码的物理体
+    private void refreshCollisionMasks() {
+        int version = collisionMatrix.getVersion();
+        if (version == matrixVersion) return;
+        matrixVersion = version;
+        for (PhysicsBody body : physicsBodies) {
+            if (!body.customMask) {
+                body.maskBits = collisionMatrix.getMask(body.collisionLayer);
+            }
+        }
     }
 
     // 应用全局重力（覆盖组件自身的重力设置）
     private void applyGravity() {
-        for (PhysicsBody body : physicsBodies) {
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
             if (body.physics.isUseGravity()) {
-                body.physics.applyForce(globalGravity.multiply(body.physics.getMass()));
+                gravityForce.set(globalGravity);
+                gravityForce.scaleLocal(body.physics.getMass());
+                body.physics.applyForce(gravityForce);
             }
         }
     }
 
-    // 更新运动状态（速度、位置）
-    private void updateMotions(float deltaTime) {
-        for (PhysicsBody body : physicsBodies) {
-            // 调用PhysicsComponent的更新逻辑（保持组件自身的速度/加速度处理）
-            body.physics.update(deltaTime);
-            // 同步碰撞体位置（与TransformComponent保持一致）
-            body.collisionShape.updatePosition(body.transform.getPosition());
+    // 更新运动状态（速度、位置）；fraction 为本子步占整步的比例，摩擦按它折算
+    private void updateMotions(float deltaTime, float fraction) {
+        // 数据已在SoA存储中的物体收集起来批量积分，其余走组件自身的更新逻辑
+        if (motionEntities.length < awakeCount) {
+            motionEntities = Arrays.copyOf(motionEntities, Math.max(awakeCount, motionEntities.length * 2));
+        }
+        int count = 0;
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            int entity = body.physics.getMotionIndex();
+            if (entity >= 0) {
+                motionEntities[count++] = entity;
+            } else {
+                body.physics.integrate(deltaTime, fraction);
+            }
+        }
+        MotionStore.getInstance().integrate(motionEntities, count, deltaTime, fraction);
+
+        // 同步碰撞体位置（与TransformComponent保持一致）
+        syncShapes();
+    }
+
+    // 碰撞体移动到变换组件的位置，并更新包围盒树（在放大包围盒内移动时树不变）
+    // 休眠物体不动，不在处理列表中（被外部移动的休眠物体在下一步开始时唤醒）
+    private void syncShapes() {
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            syncShapePosition(body);
+            CollisionShape shape = body.collisionShape;
+            tree.moveProxy(body.treeProxy, shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY());
+        }
+    }
+
+    // 将碰撞体移动到变换组件的位置（无分配的原地更新）
+    private void syncShapePosition(PhysicsBody body) {
+        body.syncedX = body.transform.getX();
+        body.syncedY = body.transform.getY();
+        body.collisionShape.updatePosition(body.transform.getX(), body.transform.getY());
+    }
+
+    // 记录连续碰撞检测物体积分前的位置
+    private void beginSweeps() {
+        sweepCount = 0;
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            if (!body.continuous) continue;
+            if (sweepCount == sweepBodies.length) {
+                sweepBodies = Arrays.copyOf(sweepBodies, sweepCount * 2);
+            }
+            body.sweepX = body.transform.getX();
+            body.sweepY = body.transform.getY();
+            sweepBodies[sweepCount++] = body;
+        }
+    }
+
+    /**
+     * 扫掠包围盒检测：把子弹的移动看作其左上角的线段，目标包围盒按子弹尺寸向左上扩展（闵可夫斯基和），
+     * 线段进入扩展盒的比例即命中时间；目标取本步积分后的位置
+     * 移动距离不到自身半个尺寸的物体离散检测就足够，直接跳过，大量慢速子弹时几乎没有额外开销
+     */
+    private void solveContinuousCollisions() {
+        int hits = 0;
+        for (int i = 0; i < sweepCount; i++) {
+            PhysicsBody body = sweepBodies[i];
+            CollisionShape shape = body.collisionShape;
+            float width = shape.getMaxX() - shape.getMinX();
+            float height = shape.getMaxY() - shape.getMinY();
+            float dx = shape.getMinX() - body.sweepX;
+            float dy = shape.getMinY() - body.sweepY;
+            if (Math.abs(dx) * 2 < width && Math.abs(dy) * 2 < height) continue;
+
+            // 用起点和终点的并集查询包围盒树得到候选目标
+            SweepQuery query = sweepQuery;
+            query.begin(body, width, height, dx, dy);
+            tree.query(Math.min(body.sweepX, shape.getMinX()), Math.min(body.sweepY, shape.getMinY()),
+                       Math.max(body.sweepX, shape.getMinX()) + width, Math.max(body.sweepY, shape.getMinY()) + height,
+                       query);
+            if (query.hitFraction >= 1) continue;
+
+            // 停在命中处并略微进入目标，速度不变，由离散检测处理碰撞响应
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            float t = Math.min(1.0f, query.hitFraction + CCD_SLOP / length);
+            body.transform.translate(dx * t - dx, dy * t - dy);
+            syncShapePosition(body);
+            tree.moveProxy(body.treeProxy, shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY());
+            // 确保这一对在候选对中，本子步的离散检测一定会处理这次命中
+            PhysicsBody target = query.hitBody;
+            pairs.insert(Math.min(body.index, target.index), Math.max(body.index, target.index));
+            hits++;
+        }
+        continuousHits += hits;
+    }
+
+    // 扫掠查询的回调：在候选目标中找最早的命中时间（复用，仅在物理线程内使用）
+    private final class SweepQuery implements DynamicAABBTree.QueryCallback {
+        private PhysicsBody body;
+        private float width;
+        private float height;
+        private float dx;
+        private float dy;
+        float hitFraction;
+        PhysicsBody hitBody; // 最早命中的目标
+
+        void begin(PhysicsBody body, float width, float height, float dx, float dy) {
+            this.body = body;
+            this.width = width;
+            this.height = height;
+            this.dx = dx;
+            this.dy = dy;
+            this.hitFraction = 1.0f;
+            this.hitBody = null;
+        }
+
+        @Override
+        public boolean visit(int proxyId) {
+            PhysicsBody other = (PhysicsBody) tree.getUserData(proxyId);
+            if (other == body || other.removed || !body.canCollide(other)) return true;
+            CollisionShape target = other.collisionShape;
+            float t = DynamicAABBTree.segmentEntry(body.sweepX, body.sweepY, dx, dy, hitFraction,
+                target.getMinX() - width, target.getMinY() - height, target.getMaxX(), target.getMaxY());
+            // 起点已经与目标重叠（如刚从发射者身上射出）交给离散检测，不在这里拦截
+            if (t > 0 && t < hitFraction) {
+                hitFraction = t;
+                hitBody = other;
+            }
+            return true;
         }
     }
 
     // 碰撞检测与响应
-    private void detectAndResolveCollisions() {
-        // 遍历所有可能的碰撞对（优化：后续可加入空间分区减少检测量）
-        for (int i = 0; i < physicsBodies.size(); i++) {
-            PhysicsBody a = physicsBodies.get(i);
-            for (int j = i + 1; j < physicsBodies.size(); j++) {
-                PhysicsBody b = physicsBodies.get(j);
-
-                // 碰撞层过滤（不检测无需碰撞的层）
-                if (!shouldCollide(a.collisionLayer, b.collisionLayer)) {
-                    continue;
+    // 宽相筛选候选对（已按碰撞掩码过滤），按注册顺序排序，与逐对遍历的结算顺序一致
+    private void findPairs(float deltaTime) {
+        updateBroadphaseBounds(deltaTime);
+        pairs.clear();
+        broadphase.findPairs(physicsBodies, pairs);
+        pairs.sort();
+    }
+
+    // 非休眠物体的宽相包围盒：碰撞体包围盒向两侧各扩展本次 update 内可能的移动距离 |v|·dt
+    // （受重力的物体再加上重力在这段时间内增加的速度）；休眠物体的包围盒在入睡时设置
+    private void updateBroadphaseBounds(float deltaTime) {
+        float gravityX = Math.abs(globalGravity.x) * deltaTime;
+        float gravityY = Math.abs(globalGravity.y) * deltaTime;
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            float speedX = Math.abs(body.physics.getVelocityX());
+            float speedY = Math.abs(body.physics.getVelocityY());
+            if (body.physics.isUseGravity()) {
+                speedX += gravityX;
+                speedY += gravityY;
+            }
+            setBounds(body, speedX * deltaTime, speedY * deltaTime);
+        }
+    }
+
+    private static void setBounds(PhysicsBody body, float extendX, float extendY) {
+        CollisionShape shape = body.collisionShape;
+        body.minX = shape.getMinX() - extendX;
+        body.minY = shape.getMinY() - extendY;
+        body.maxX = shape.getMaxX() + extendX;
+        body.maxY = shape.getMaxY() + extendY;
+    }
+
+    /**
+     * 对候选对做若干轮求解：第一轮分离穿透并计算碰撞响应，之后的轮次只继续分离剩余的穿透
+     */
+    private void resolveContacts(int iterations) {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if (iteration > 0) {
+                // 上一轮分离移动了物体，碰撞体跟上变换组件的位置
+                for (int i = 0; i < awakeCount; i++) {
+                    syncShapePosition(awakeBodies[i]);
                 }
+            }
+            int contacts = solvePairs(iteration == 0);
+            if (iteration == 0) {
+                lastContacts = contacts;
+            }
+            if (contacts == 0) break;
+        }
+    }
 
-                // 检测碰撞
-                if (a.collisionShape.collidesWith(b.collisionShape)) {
-                    // 1. 分离穿透物体
-                    Vector2 separation = a.collisionShape.getSeparatingAxis(b.collisionShape);
-                    resolvePenetration(a, b, separation);
+    // 依次处理候选对，返回接触数
+    private int solvePairs(boolean applyResponse) {
+        int contacts = 0;
+        for (int k = 0; k < pairs.size(); k++) {
+            PhysicsBody a = physicsBodies.get(pairs.getA(k));
+            PhysicsBody b = physicsBodies.get(pairs.getB(k));
+            // 都在休眠的物体之间没有新的相对运动（宽相已跳过，候选对复用到之后的子步时仍可能出现）
+            if (a.sleeping && b.sleeping) continue;
+
+            // 窄相检测
+            stepPairTests++;
+            if (a.collisionShape.collidesWith(b.collisionShape)) {
+                contacts++;
+                a.collisionShape.getSeparatingAxis(b.collisionShape, separation);
+                // 运动的物体碰到休眠物体时唤醒双方；几乎静止的物体靠着休眠物体时只把它推出去，
+                // 不做速度响应也不唤醒，休眠物体保持不动，避免慢速物体一点点陷进去
+                if (a.sleeping || b.sleeping) {
+                    if (isResting(a.sleeping ? b : a)) {
+                        separateFromSleeping(a, b, separation);
+                        continue;
+                    }
+                    wake(a);
+                    wake(b);
+                }
+                // 1. 分离穿透物体
+                resolvePenetration(a, b, separation);
 
-                    // 2. 计算碰撞响应（动量守恒）
+                // 2. 计算碰撞响应（动量守恒，每个子步只计算一次）
+                if (applyResponse) {
                     resolveCollisionResponse(a, b, separation);
                 }
             }
         }
+        return contacts;
+    }
+
+    // 与休眠物体的穿透全部由非休眠的一方移开（休眠物体视为静止）
+    private void separateFromSleeping(PhysicsBody a, PhysicsBody b, Vector2 separation) {
+        if (b.sleeping) {
+            a.transform.translate(-separation.x, -separation.y);
+        } else {
+            b.transform.translate(separation.x, separation.y);
+        }
     }
 
     // 解决物体穿透
@@ -117,39 +546,39 @@ public class PhysicsWorld {
         float ratioA = b.physics.getMass() / totalMass;
         float ratioB = a.physics.getMass() / totalMass;
 
-        a.transform.translate(separation.multiply(-ratioA));
-        b.transform.translate(separation.multiply(ratioB));
+        a.transform.translate(-separation.x * ratioA, -separation.y * ratioA);
+        b.transform.translate(separation.x * ratioB, separation.y * ratioB);
     }
 
     // 碰撞响应（动量守恒+恢复系数）
     private void resolveCollisionResponse(PhysicsBody a, PhysicsBody b, Vector2 separation) {
-        Vector2 velA = a.physics.getVelocity();
-        Vector2 velB = b.physics.getVelocity();
+        float velAX = a.physics.getVelocityX();
+        float velAY = a.physics.getVelocityY();
+        float velBX = b.physics.getVelocityX();
+        float velBY = b.physics.getVelocityY();
         float massA = a.physics.getMass();
         float massB = b.physics.getMass();
         float e = 0.8f; // 恢复系数（0为完全非弹性，1为完全弹性）
 
-        // 修正后
         // 1. 获取碰撞法线（从分离轴获取，假设separation为碰撞方向向量）
-        Vector2 normal = separation.normalize();
-        Vector2 tangent = new Vector2(-normal.y, normal.x); // 切线方向
+        normal.set(separation);
+        normal.normalizeLocal();
+        float tangentX = -normal.y; // 切线方向
+        float tangentY = normal.x;
 
         // 2. 分解速度到法线和切线方向
-        float velAN = velA.dot(normal);
-        float velAT = velA.dot(tangent);
-        float velBN = velB.dot(normal);
-        float velBT = velB.dot(tangent);
+        float velAN = velAX * normal.x + velAY * normal.y;
+        float velAT = velAX * tangentX + velAY * tangentY;
+        float velBN = velBX * normal.x + velBY * normal.y;
+        float velBT = velBX * tangentX + velBY * tangentY;
 
         // 3. 计算法线方向新速度（动量守恒）
         float newVelAN = (massA * velAN + massB * velBN - massB * e * (velAN - velBN)) / (massA + massB);
         float newVelBN = (massA * velAN + massB * velBN - massA * e * (velBN - velAN)) / (massA + massB);
 
         // 4. 合成新速度（切线方向速度不变）
-        Vector2 newVelA = normal.multiply(newVelAN).add(tangent.multiply(velAT));
-        Vector2 newVelB = normal.multiply(newVelBN).add(tangent.multiply(velBT));
-
-        a.physics.setVelocity(newVelA);
-        b.physics.setVelocity(newVelB);
+        a.physics.setVelocity(normal.x * newVelAN + tangentX * velAT, normal.y * newVelAN + tangentY * velAT);
+        b.physics.setVelocity(normal.x * newVelBN + tangentX * velBT, normal.y * newVelBN + tangentY * velBT);
     }
 
     // 边界检查（场景边缘碰撞）
@@ -157,58 +586,277 @@ public class PhysicsWorld {
         float sceneWidth = 800;
         float sceneHeight = 600;
 
-        for (Iterator<PhysicsBody> iterator = physicsBodies.iterator(); iterator.hasNext(); ) {
-            PhysicsBody body = iterator.next();
-            Vector2 pos = body.transform.getPosition();
-            Vector2 vel = body.physics.getVelocity();
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            if (body.removed) continue;
+            float posX = body.transform.getX();
+            float posY = body.transform.getY();
+            float velX = body.physics.getVelocityX();
+            float velY = body.physics.getVelocityY();
         
-            AABB aabb = (AABB) body.collisionShape;
-            float width = aabb.getHalfExtents().x * 2;
-            float height = aabb.getHalfExtents().y * 2;
+            CollisionShape shape = body.collisionShape;
+            float width = shape.getMaxX() - shape.getMinX();
+            float height = shape.getMaxY() - shape.getMinY();
 
-            // 判断是否是子弹（碰撞层为2）
-            boolean isBullet = body.collisionLayer == 2;
+            // 判断是否是子弹
+            boolean isBullet = body.collisionLayer == CollisionMatrix.BULLET;
 
             // 边界检查逻辑
             boolean outOfBounds = false;
-            if (pos.x <= 0 || pos.x >= sceneWidth - width) {
+            if (posX <= 0 || posX >= sceneWidth - width) {
                 outOfBounds = true;
                 if (!isBullet) { // 非子弹才反弹
-                    vel.x = -vel.x * 0.8f;
-                    body.physics.setVelocity(vel);
+                    velX = -velX * 0.8f;
+                    body.physics.setVelocity(velX, velY);
                 }
             }
 
-            if (pos.y <= 0 || pos.y >= sceneHeight - height) {
+            if (posY <= 0 || posY >= sceneHeight - height) {
                 outOfBounds = true;
                 if (!isBullet) { // 非子弹才反弹
-                    vel.y = -vel.y * 0.8f;
-                    body.physics.setVelocity(vel);
+                    velY = -velY * 0.8f;
+                    body.physics.setVelocity(velX, velY);
                 }
             }
 
-            // 子弹触边则销毁
+            // 子弹触边则失效，由场景在下一步移除并回收（池化子弹归还对象池）
             if (isBullet && outOfBounds) {
-                body.gameObject.destroy(); // 销毁子弹游戏对象
-                iterator.remove(); // 从物理世界移除
+                body.gameObject.setActive(false);
+                markRemoved(body); // 下一步开始时从物理世界压缩掉
                 continue;
             }
 
             // 非子弹物体限制在场景内（保持原逻辑）
             if (!isBullet) {
-                pos.x = Math.max(0, Math.min(pos.x, sceneWidth - width));
-                pos.y = Math.max(0, Math.min(pos.y, sceneHeight - height));
-                body.transform.setPosition(pos);
+                body.transform.setPosition(
+                    Math.max(0, Math.min(posX, sceneWidth - width)),
+                    Math.max(0, Math.min(posY, sceneHeight - height)));
+            }
+        }
+    }
+
+    private static boolean isResting(PhysicsBody body) {
+        float vx = body.physics.getVelocityX();
+        float vy = body.physics.getVelocityY();
+        return vx * vx + vy * vy <= SLEEP_SPEED * SLEEP_SPEED;
+    }
+
+    // 速度持续低于阈值的物体进入休眠，统计休眠数量
+    // 整步都在休眠的物体不在处理列表中，直接计数
+    private void updateSleeping(float deltaTime) {
+        int sleeping = physicsBodies.size() - awakeCount;
+        for (int i = 0; i < awakeCount; i++) {
+            PhysicsBody body = awakeBodies[i];
+            if (body.removed) continue;
+            if (sleepingEnabled) {
+                body.physics.updateSleep(deltaTime, SLEEP_SPEED, TIME_TO_SLEEP);
+            }
+            if (body.physics.isSleeping()) {
+                setBounds(body, 0, 0); // 入睡后不再移动，宽相包围盒收回到碰撞体包围盒
+                sleeping++;
+            }
+        }
+        lastSleepingBodies = sleeping;
+        Arrays.fill(awakeBodies, 0, awakeCount, null); // 不持有之后会归还对象池的物理体
+        awakeCount = 0;
+    }
+
+    /**
+     * 点查询（如鼠标拾取）：包围盒包含该点的物体追加到 out，位置为上一物理步结束时的位置
+     * 查询可以在任意线程调用（物理步进行中除外），查询本身不分配内存
+     * @param layerMask 参与查询的碰撞层位集合（ALL_LAYERS 表示全部）
+     * @return 追加的物体数量
+     */
+    public int queryPoint(float x, float y, int layerMask, List<GameObject> out) {
+        return queryRegion(x, y, x, y, layerMask, out);
+    }
+
+    /**
+     * 区域查询：包围盒与矩形区域重叠的物体追加到 out
+     * @return 追加的物体数量
+     */
+    public int queryRegion(float minX, float minY, float maxX, float maxY, int layerMask, List<GameObject> out) {
+        int before = out.size();
+        RegionSearch search = regionSearch.get();
+        search.begin(minX, minY, maxX, maxY, layerMask, out);
+        try {
+            tree.query(minX, minY, maxX, maxY, search);
+        } finally {
+            search.out = null;
+        }
+        return out.size() - before;
+    }
+
+    /**
+     * 查找半径内离指定点最近的物体（按包围盒中心计算距离）
+     * @param filter 额外的筛选条件，可为 null（每帧调用时请复用同一个对象，不要传捕获变量的 lambda）
+     * @return 最近的物体，没有时返回 null
+     */
+    public GameObject findNearest(float x, float y, float radius, int layerMask, Predicate<GameObject> filter) {
+        return nearest(x, y, radius, layerMask, filter, null, null);
+    }
+
+    /**
+     * 查找半径内离指定点最近的、指定名称的活跃物体，如 AI 寻找最近的目标
+     * @param name 目标名称，为 null 时不按名称筛选
+     * @param exclude 排除的对象（通常是查询者自己），可为 null
+     * @return 最近的物体，没有时返回 null
+     */
+    public GameObject findNearest(float x, float y, float radius, int layerMask, String name, GameObject exclude) {
+        return nearest(x, y, radius, layerMask, null, name, exclude);
+    }
+
+    private GameObject nearest(float x, float y, float radius, int layerMask,
+                               Predicate<GameObject> filter, String name, GameObject exclude) {
+        NearestSearch search = nearestSearch.get();
+        search.begin(x, y, radius * radius, layerMask, filter, name, exclude);
+        try {
+            tree.query(x - radius, y - radius, x + radius, y + radius, search);
+            return search.best != null ? search.best.gameObject : null;
+        } finally {
+            search.end();
+        }
+    }
+
+    /**
+     * 射线查询（如子弹路径）：找到线段 (x1,y1)->(x2,y2) 最先碰到的物体
+     * @param hit 输出命中结果，未命中时 hasHit() 为 false
+     * @return 是否命中
+     */
+    public boolean raycast(float x1, float y1, float x2, float y2, int layerMask, RaycastHit hit) {
+        hit.reset();
+        RaySearch search = raySearch.get();
+        search.begin(x1, y1, x2 - x1, y2 - y1, layerMask, hit);
+        try {
+            tree.raycast(x1, y1, x2, y2, search);
+        } finally {
+            search.hit = null;
+        }
+        return hit.hasHit();
+    }
+
+    // 查询只返回未移除、未销毁且层在掩码内的物体
+    private static boolean matches(PhysicsBody body, int layerMask) {
+        return (layerMask & body.categoryBits) != 0 && !body.removed && !body.gameObject.isDestroyed();
+    }
+
+    // 区域查询的回调（包围盒精确重叠的物体追加到输出列表）
+    private final class RegionSearch implements DynamicAABBTree.QueryCallback {
+        private float minX;
+        private float minY;
+        private float maxX;
+        private float maxY;
+        private int layerMask;
+        private List<GameObject> out;
+
+        void begin(float minX, float minY, float maxX, float maxY, int layerMask, List<GameObject> out) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.layerMask = layerMask;
+            this.out = out;
+        }
+
+        @Override
+        public boolean visit(int proxyId) {
+            PhysicsBody body = (PhysicsBody) tree.getUserData(proxyId);
+            CollisionShape shape = body.collisionShape;
+            if (matches(body, layerMask)
+                && shape.getMinX() <= maxX && shape.getMaxX() >= minX
+                && shape.getMinY() <= maxY && shape.getMaxY() >= minY) {
+                out.add(body.gameObject);
             }
+            return true;
         }
     }
 
-    // 碰撞层过滤规则（示例：0=玩家，1=敌人，2=平台，玩家与平台碰撞，敌人与平台碰撞）
-    private boolean shouldCollide(int layerA, int layerB) {
-        if (layerA == 0 && layerB == 2) return true; // 玩家碰平台
-        if (layerA == 1 && layerB == 2) return true; // 敌人碰平台
-        if (layerA == 0 && layerB == 1) return true; // 玩家碰敌人
-        return false;
+    // 最近物体查询的回调（记录距离最小的物体）
+    private final class NearestSearch implements DynamicAABBTree.QueryCallback {
+        private float x;
+        private float y;
+        private int layerMask;
+        private Predicate<GameObject> filter;
+        private String name;
+        private GameObject exclude;
+        private float bestDistanceSq;
+        private PhysicsBody best;
+
+        void begin(float x, float y, float radiusSq, int layerMask,
+                   Predicate<GameObject> filter, String name, GameObject exclude) {
+            this.x = x;
+            this.y = y;
+            this.bestDistanceSq = radiusSq;
+            this.layerMask = layerMask;
+            this.filter = filter;
+            this.name = name;
+            this.exclude = exclude;
+            this.best = null;
+        }
+
+        // 查询结束后清除引用，避免线程的回调对象让已离场的对象无法回收
+        void end() {
+            filter = null;
+            name = null;
+            exclude = null;
+            best = null;
+        }
+
+        @Override
+        public boolean visit(int proxyId) {
+            PhysicsBody body = (PhysicsBody) tree.getUserData(proxyId);
+            if (!matches(body, layerMask)) return true;
+            CollisionShape shape = body.collisionShape;
+            float cx = (shape.getMinX() + shape.getMaxX()) * 0.5f - x;
+            float cy = (shape.getMinY() + shape.getMaxY()) * 0.5f - y;
+            float distanceSq = cx * cx + cy * cy;
+            if (distanceSq <= bestDistanceSq && (best == null || distanceSq < bestDistanceSq)
+                && accepts(body.gameObject)) {
+                bestDistanceSq = distanceSq;
+                best = body;
+            }
+            return true;
+        }
+
+        private boolean accepts(GameObject obj) {
+            if (name != null && (obj == exclude || !obj.isActive() || !name.equals(obj.getName()))) {
+                return false;
+            }
+            return filter == null || filter.test(obj);
+        }
+    }
+
+    // 射线查询的回调（记录最先碰到的物体）
+    private final class RaySearch implements DynamicAABBTree.RaycastCallback {
+        private float x1;
+        private float y1;
+        private float dx;
+        private float dy;
+        private int layerMask;
+        private RaycastHit hit;
+
+        void begin(float x1, float y1, float dx, float dy, int layerMask, RaycastHit hit) {
+            this.x1 = x1;
+            this.y1 = y1;
+            this.dx = dx;
+            this.dy = dy;
+            this.layerMask = layerMask;
+            this.hit = hit;
+        }
+
+        @Override
+        public float raycast(int proxyId, float maxFraction) {
+            PhysicsBody body = (PhysicsBody) tree.getUserData(proxyId);
+            if (!matches(body, layerMask)) return -1;
+            CollisionShape shape = body.collisionShape;
+            float t = DynamicAABBTree.segmentEntry(x1, y1, dx, dy, maxFraction,
+                shape.getMinX(), shape.getMinY(), shape.getMaxX(), shape.getMaxY());
+            if (t < 0) return -1;
+            if (!hit.hasHit() || t < hit.getFraction()) {
+                hit.set(body.gameObject, t, x1 + dx * t, y1 + dy * t);
+            }
+            return t;
+        }
     }
 
     // Getters & Setters
@@ -224,4 +872,118 @@ public class PhysicsWorld {
     public Vector2 getGlobalGravity() {
         return globalGravity;
     }
+
+    /**
+     * 碰撞矩阵（可定义新层、修改层间规则，下一物理步生效）
+     */
+    public CollisionMatrix getCollisionMatrix() {
+        return collisionMatrix;
+    }
+
+    public BroadphaseType getBroadphaseType() {
+        return broadphaseType;
+    }
+
+    // 物理体列表的长度（包含已移除、等待下一步压缩的物理体）
+    public int getBodyCount() {
+        return physicsBodies.size();
+    }
+
+    /**
+     * 仍在物理世界中的物理体数量（不含已移除的；游戏对象已销毁的在下一步开始时扣除），可用于监控泄漏
+     */
+    public int getLiveBodyCount() {
+        return physicsBodies.size() - pendingRemovals;
+    }
+
+    // 上一步开始时压缩掉的物理体数量
+    public int getLastRemovedBodies() {
+        return lastRemovedBodies;
+    }
+
+    // 上一步的碰撞对检测次数
+    public int getLastPairTests() {
+        return lastPairTests;
+    }
+
+    /**
+     * 设置每次 update 的子步数（至少1）：积分和接触求解在每个子步执行，宽相只执行一次
+     */
+    public void setSubsteps(int substeps) {
+        this.substeps = Math.max(1, substeps);
+    }
+
+    public int getSubsteps() {
+        return substeps;
+    }
+
+    /**
+     * 设置每个子步的接触求解轮数（至少1），轮数越多残留的穿透越少
+     */
+    public void setSolverIterations(int iterations) {
+        this.solverIterations = Math.max(1, iterations);
+    }
+
+    public int getSolverIterations() {
+        return solverIterations;
+    }
+
+    /**
+     * 设置每次 update 的时间预算（毫秒，0表示不限制）：
+     * 超出预算时剩余时间合并到一个只求解一轮的子步中完成，模拟时间不变，只降低精度
+     */
+    public void setStepBudget(float millis) {
+        this.stepBudgetMillis = Math.max(0, millis);
+    }
+
+    public float getStepBudget() {
+        return stepBudgetMillis;
+    }
+
+    // 上一步实际执行的子步数（超出预算时少于设置值）
+    public int getLastSubsteps() {
+        return lastSubsteps;
+    }
+
+    // 上一步连续碰撞检测拦截的次数
+    public int getLastContinuousHits() {
+        return lastContinuousHits;
+    }
+
+    /**
+     * 开启或关闭游戏对象物理体的连续碰撞检测（子弹层默认开启）
+     * @return 是否找到物理体
+     */
+    public boolean setContinuousCollision(GameObject obj, boolean enabled) {
+        PhysicsBody body = bodiesByObject.get(obj);
+        if (body == null) return false;
+        body.continuous = enabled;
+        return true;
+    }
+
+    /**
+     * 开启或关闭休眠（关闭时唤醒所有物体）
+     */
+    public void setSleepingEnabled(boolean enabled) {
+        this.sleepingEnabled = enabled;
+        if (!enabled) {
+            for (PhysicsBody body : physicsBodies) {
+                body.physics.wakeUp();
+            }
+        }
+    }
+
+    public boolean isSleepingEnabled() {
+        return sleepingEnabled;
+    }
+
+    // 上一步结束时休眠的物体数量
+    public int getSleepingBodyCount() {
+        return lastSleepingBodies;
+    }
+
+    // 上一步的实际接触数
+    public int getLastContacts() {
+        return lastContacts;
+    }
 }
\ No newline at end of file
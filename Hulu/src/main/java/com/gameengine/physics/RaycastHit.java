@@ -0,0 +1,47 @@
+package com.gameengine.physics;
+
+import com.gameengine.core.GameObject;
+
+/**
+ * 射线查询结果：最近命中的物体、命中比例（0为起点，1为终点）和命中点
+ */
+public class RaycastHit {
+    private GameObject gameObject;
+    private float fraction;
+    private float x;
+    private float y;
+
+    void set(GameObject gameObject, float fraction, float x, float y) {
+        this.gameObject = gameObject;
+        this.fraction = fraction;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * 清空结果（查询前调用）
+     */
+    public void reset() {
+        set(null, 1.0f, 0, 0);
+    }
+
+    public boolean hasHit() {
+        return gameObject != null;
+    }
+
+    public GameObject getGameObject() {
+        return gameObject;
+    }
+
+    public float getFraction() {
+        return fraction;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+}
@@ -0,0 +1,314 @@
+package com.gameengine.physics;
+
+import com.gameengine.math.Vector2;
+
+/**
+ * 形状对分派表：按 (形状A类型序号, 形状B类型序号) 查表得到相交检测和分离向量的实现，
+ * 窄相内层循环不需要 instanceof 判断，也不分配对象
+ * 圆形看作线段退化为一个点的胶囊，圆形/胶囊之间统一按“带半径的线段”计算
+ * 分离向量从A指向B，长度为穿透深度；不穿透时为零向量（与 AABB 的约定一致）
+ */
+final class ShapeDispatch {
+    /**
+     * 一种形状对的检测实现
+     */
+    interface PairTest {
+        boolean collides(CollisionShape a, CollisionShape b);
+
+        void separation(CollisionShape a, CollisionShape b, Vector2 out);
+    }
+
+    private static final int TYPE_COUNT = ShapeType.values().length;
+    private static final PairTest[] TABLE = new PairTest[TYPE_COUNT * TYPE_COUNT];
+
+    static {
+        register(ShapeType.AABB, ShapeType.AABB, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                return boundsOverlap(a, b);
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                boundsSeparation(a, b, out);
+            }
+        });
+        register(ShapeType.CIRCLE, ShapeType.CIRCLE, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                Circle ca = (Circle) a;
+                Circle cb = (Circle) b;
+                float dx = cb.getCenterX() - ca.getCenterX();
+                float dy = cb.getCenterY() - ca.getCenterY();
+                float r = ca.getRadius() + cb.getRadius();
+                return dx * dx + dy * dy <= r * r;
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                Circle ca = (Circle) a;
+                Circle cb = (Circle) b;
+                out.set(cb.getCenterX() - ca.getCenterX(), cb.getCenterY() - ca.getCenterY());
+                pushApart(a, b, out, ca.getRadius() + cb.getRadius());
+            }
+        });
+        register(ShapeType.CIRCLE, ShapeType.AABB, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                Circle c = (Circle) a;
+                float dx = clamp(c.getCenterX(), b.getMinX(), b.getMaxX()) - c.getCenterX();
+                float dy = clamp(c.getCenterY(), b.getMinY(), b.getMaxY()) - c.getCenterY();
+                return dx * dx + dy * dy <= c.getRadius() * c.getRadius();
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                Circle c = (Circle) a;
+                roundBoxSeparation(a, c.getCenterX(), c.getCenterY(), c.getCenterX(), c.getCenterY(),
+                                   c.getRadius(), b, out);
+            }
+        });
+        register(ShapeType.CAPSULE, ShapeType.CAPSULE, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                Capsule ca = (Capsule) a;
+                Capsule cb = (Capsule) b;
+                float r = ca.getRadius() + cb.getRadius();
+                return segmentSegmentDistanceSq(ca.getStartX(), ca.getStartY(), ca.getEndX(), ca.getEndY(),
+                    cb.getStartX(), cb.getStartY(), cb.getEndX(), cb.getEndY(), null) <= r * r;
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                Capsule ca = (Capsule) a;
+                Capsule cb = (Capsule) b;
+                segmentSegmentDistanceSq(ca.getStartX(), ca.getStartY(), ca.getEndX(), ca.getEndY(),
+                    cb.getStartX(), cb.getStartY(), cb.getEndX(), cb.getEndY(), out);
+                pushApart(a, b, out, ca.getRadius() + cb.getRadius());
+            }
+        });
+        register(ShapeType.CAPSULE, ShapeType.CIRCLE, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                Capsule ca = (Capsule) a;
+                Circle cb = (Circle) b;
+                float r = ca.getRadius() + cb.getRadius();
+                return segmentSegmentDistanceSq(ca.getStartX(), ca.getStartY(), ca.getEndX(), ca.getEndY(),
+                    cb.getCenterX(), cb.getCenterY(), cb.getCenterX(), cb.getCenterY(), null) <= r * r;
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                Capsule ca = (Capsule) a;
+                Circle cb = (Circle) b;
+                segmentSegmentDistanceSq(ca.getStartX(), ca.getStartY(), ca.getEndX(), ca.getEndY(),
+                    cb.getCenterX(), cb.getCenterY(), cb.getCenterX(), cb.getCenterY(), out);
+                pushApart(a, b, out, ca.getRadius() + cb.getRadius());
+            }
+        });
+        register(ShapeType.CAPSULE, ShapeType.AABB, new PairTest() {
+            @Override
+            public boolean collides(CollisionShape a, CollisionShape b) {
+                Capsule c = (Capsule) a;
+                float r = c.getRadius();
+                return segmentBoxDistanceSq(c.getStartX(), c.getStartY(), c.getEndX(), c.getEndY(), b, null) <= r * r;
+            }
+
+            @Override
+            public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                Capsule c = (Capsule) a;
+                roundBoxSeparation(a, c.getStartX(), c.getStartY(), c.getEndX(), c.getEndY(), c.getRadius(), b, out);
+            }
+        });
+    }
+
+    private ShapeDispatch() {
+    }
+
+    static boolean collides(CollisionShape a, CollisionShape b) {
+        return TABLE[a.getType().ordinal() * TYPE_COUNT + b.getType().ordinal()].collides(a, b);
+    }
+
+    static Vector2 separation(CollisionShape a, CollisionShape b, Vector2 out) {
+        TABLE[a.getType().ordinal() * TYPE_COUNT + b.getType().ordinal()].separation(a, b, out);
+        return out;
+    }
+
+    // 登记一种形状对，同时登记交换顺序后的实现（结果取反）
+    private static void register(ShapeType typeA, ShapeType typeB, PairTest test) {
+        TABLE[typeA.ordinal() * TYPE_COUNT + typeB.ordinal()] = test;
+        if (typeA != typeB) {
+            TABLE[typeB.ordinal() * TYPE_COUNT + typeA.ordinal()] = new PairTest() {
+                @Override
+                public boolean collides(CollisionShape a, CollisionShape b) {
+                    return test.collides(b, a);
+                }
+
+                @Override
+                public void separation(CollisionShape a, CollisionShape b, Vector2 out) {
+                    test.separation(b, a, out);
+                    out.set(-out.x, -out.y);
+                }
+            };
+        }
+    }
+
+    static boolean boundsOverlap(CollisionShape a, CollisionShape b) {
+        return a.getMinX() <= b.getMaxX() && a.getMaxX() >= b.getMinX()
+            && a.getMinY() <= b.getMaxY() && a.getMaxY() >= b.getMinY();
+    }
+
+    // 按包围盒计算分离向量：取重叠量小的轴，方向从A指向B
+    static void boundsSeparation(CollisionShape a, CollisionShape b, Vector2 out) {
+        float overlapX = Math.min(a.getMaxX(), b.getMaxX()) - Math.max(a.getMinX(), b.getMinX());
+        float overlapY = Math.min(a.getMaxY(), b.getMaxY()) - Math.max(a.getMinY(), b.getMinY());
+        if (overlapX <= 0 || overlapY <= 0) {
+            out.set(0, 0);
+        } else if (overlapX < overlapY) {
+            out.set(a.getMinX() < b.getMinX() ? overlapX : -overlapX, 0);
+        } else {
+            out.set(0, a.getMinY() < b.getMinY() ? overlapY : -overlapY);
+        }
+    }
+
+    /**
+     * delta 为两条中心线段最近点之差（从A指向B），改写为分离向量；半径和减去距离即穿透深度
+     * 中心线相交或重合时没有确定的方向，按包围盒分离
+     */
+    private static void pushApart(CollisionShape a, CollisionShape b, Vector2 delta, float radiusSum) {
+        float distSq = delta.x * delta.x + delta.y * delta.y;
+        if (distSq > radiusSum * radiusSum) {
+            delta.set(0, 0);
+            return;
+        }
+        float dist = (float) Math.sqrt(distSq);
+        if (dist == 0) {
+            boundsSeparation(a, b, delta);
+            return;
+        }
+        float scale = (radiusSum - dist) / dist;
+        delta.set(delta.x * scale, delta.y * scale);
+    }
+
+    /**
+     * 带半径的线段（圆形或胶囊）与矩形的分离向量，方向从圆形/胶囊指向矩形
+     * 中心线段已进入矩形内部时按包围盒分离
+     */
+    private static void roundBoxSeparation(CollisionShape round, float px, float py, float qx, float qy,
+                                           float radius, CollisionShape box, Vector2 out) {
+        float distSq = segmentBoxDistanceSq(px, py, qx, qy, box, out);
+        if (distSq > radius * radius) {
+            out.set(0, 0);
+        } else if (distSq == 0) {
+            boundsSeparation(round, box, out);
+        } else {
+            float dist = (float) Math.sqrt(distSq);
+            float scale = (radius - dist) / dist;
+            out.set(out.x * scale, out.y * scale);
+        }
+    }
+
+    /**
+     * 两条线段之间的最近距离平方（Ericson《实时碰撞检测》5.1.9），
+     * delta 不为 null 时写入最近点之差（第二条线段上的点减去第一条线段上的点）
+     */
+    static float segmentSegmentDistanceSq(float p1x, float p1y, float q1x, float q1y,
+                                          float p2x, float p2y, float q2x, float q2y, Vector2 delta) {
+        float d1x = q1x - p1x;
+        float d1y = q1y - p1y;
+        float d2x = q2x - p2x;
+        float d2y = q2y - p2y;
+        float rx = p1x - p2x;
+        float ry = p1y - p2y;
+        float a = d1x * d1x + d1y * d1y;
+        float e = d2x * d2x + d2y * d2y;
+        float f = d2x * rx + d2y * ry;
+        float s;
+        float t;
+        if (a == 0 && e == 0) {
+            s = 0;
+            t = 0;
+        } else if (a == 0) {
+            s = 0;
+            t = clamp(f / e, 0, 1);
+        } else {
+            float c = d1x * rx + d1y * ry;
+            if (e == 0) {
+                t = 0;
+                s = clamp(-c / a, 0, 1);
+            } else {
+                float b = d1x * d2x + d1y * d2y;
+                float denom = a * e - b * b;
+                s = denom != 0 ? clamp((b * f - c * e) / denom, 0, 1) : 0;
+                t = (b * s + f) / e;
+                if (t < 0) {
+                    t = 0;
+                    s = clamp(-c / a, 0, 1);
+                } else if (t > 1) {
+                    t = 1;
+                    s = clamp((b - c) / a, 0, 1);
+                }
+            }
+        }
+        float dx = (p2x + d2x * t) - (p1x + d1x * s);
+        float dy = (p2y + d2y * t) - (p1y + d1y * s);
+        if (delta != null) {
+            delta.set(dx, dy);
+        }
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 线段与矩形之间的最近距离平方；delta 不为 null 时写入最近点之差（矩形上的点减去线段上的点）
+     * 距离函数沿线段是分段凸函数，最小值只可能出现在端点、矩形角点在线段上的投影、
+     * 或线段穿过矩形边所在直线的位置，逐个比较这些候选位置即可得到精确结果
+     */
+    static float segmentBoxDistanceSq(float px, float py, float qx, float qy, CollisionShape box, Vector2 delta) {
+        float minX = box.getMinX();
+        float minY = box.getMinY();
+        float maxX = box.getMaxX();
+        float maxY = box.getMaxY();
+        float dx = qx - px;
+        float dy = qy - py;
+        float lengthSq = dx * dx + dy * dy;
+
+        float bestT = 0;
+        float best = pointBoxDistanceSq(px, py, minX, minY, maxX, maxY);
+        for (int candidate = 0; candidate < 9 && best > 0 && lengthSq > 0; candidate++) {
+            float t;
+            switch (candidate) {
+                case 0: t = 1; break;                                                // 终点
+                case 1: t = ((minX - px) * dx + (minY - py) * dy) / lengthSq; break;  // 角点投影
+                case 2: t = ((maxX - px) * dx + (minY - py) * dy) / lengthSq; break;
+                case 3: t = ((minX - px) * dx + (maxY - py) * dy) / lengthSq; break;
+                case 4: t = ((maxX - px) * dx + (maxY - py) * dy) / lengthSq; break;
+                case 5: t = dx != 0 ? (minX - px) / dx : 0; break;                     // 穿过边所在直线
+                case 6: t = dx != 0 ? (maxX - px) / dx : 0; break;
+                case 7: t = dy != 0 ? (minY - py) / dy : 0; break;
+                default: t = dy != 0 ? (maxY - py) / dy : 0; break;
+            }
+            t = clamp(t, 0, 1);
+            float distSq = pointBoxDistanceSq(px + dx * t, py + dy * t, minX, minY, maxX, maxY);
+            if (distSq < best) {
+                best = distSq;
+                bestT = t;
+            }
+        }
+        if (delta != null) {
+            float sx = px + dx * bestT;
+            float sy = py + dy * bestT;
+            delta.set(clamp(sx, minX, maxX) - sx, clamp(sy, minY, maxY) - sy);
+        }
+        return best;
+    }
+
+    private static float pointBoxDistanceSq(float x, float y, float minX, float minY, float maxX, float maxY) {
+        float dx = clamp(x, minX, maxX) - x;
+        float dy = clamp(y, minY, maxY) - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static float clamp(float v, float min, float max) {
+        return v < min ? min : (v > max ? max : v);
+    }
+}
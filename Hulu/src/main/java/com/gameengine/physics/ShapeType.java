@@ -0,0 +1,10 @@
+package com.gameengine.physics;
+
+/**
+ * 碰撞体类型，序号用作形状对分派表的下标
+ */
+public enum ShapeType {
+    AABB,
+    CIRCLE,
+    CAPSULE
+}
@@ -0,0 +1,274 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 均匀空间哈希网格宽相：按格子坐标哈希分桶，每步根据物理体的宽相包围盒重建，
+ * 只在同一格子内的物体之间生成候选对，复杂度与物体数量近似线性；只有休眠物体的格子整格跳过
+ * 包围盒超出格子坐标范围（发散、被传送到极远处或坐标为 NaN）或覆盖格子过多的物体不进网格，
+ * 放入溢出列表与所有物体逐一检测，避免格子坐标溢出后循环回绕或为一个巨大的物体创建海量格子
+ * 所有数据存放在复用的数组中，稳定运行后每步不分配内存
+ */
+final class SpatialHashGrid implements Broadphase {
+    private static final float MAX_CELL_COORD = 1 << 20; // 格子坐标的绝对值上限，远小于 int 范围
+    private static final long MAX_BODY_CELLS = 256;      // 单个物体最多覆盖的格子数
+
+    private final float inverseCellSize;
+
+    // 开放寻址哈希表（线性探测）：格子坐标 -> 格子编号，-1 表示空槽
+    private long[] slotKeys = new long[256];
+    private int[] slotCells = new int[256];
+
+    // 本步用到的格子
+    private int cellCount;
+    private int[] cellX = new int[64];
+    private int[] cellY = new int[64];
+    private int[] cellSlot = new int[64];       // 格子在哈希表中的槽位（重建时只清理用过的槽）
+    private int[] cellHead = new int[64];       // 格子内条目链表头
+    private int[] cellPopulation = new int[64]; // 格子内物体数
+    private int[] cellCategories = new int[64]; // 格子内物体类别位的并集
+    private int[] cellMasks = new int[64];      // 格子内物体碰撞掩码的并集
+    private int[] cellAwake = new int[64];      // 格子内未休眠的物体数
+
+    // 条目：一个物体覆盖几个格子就有几个条目，按格子串成单链表
+    private int entryCount;
+    private int[] entryBody = new int[256];
+    private int[] entryNext = new int[256];
+
+    // 物体包围盒缓存（按物理体下标）
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private int[] categories = new int[64];
+    private int[] masks = new int[64];
+    private boolean[] sleeping = new boolean[64];
+    private boolean[] overflowed = new boolean[64];
+    private int bodyCount;
+
+    // 溢出列表：不进网格、与所有物体逐一检测的物体下标
+    private int overflowCount;
+    private int[] overflow = new int[16];
+
+    private int[] scratch = new int[16];        // 单个格子内物体下标的临时缓冲
+
+    /**
+     * @param cellSize 格子边长，通常取常见物体尺寸的2~4倍
+     */
+    SpatialHashGrid(float cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.inverseCellSize = 1.0f / cellSize;
+        Arrays.fill(slotCells, -1);
+    }
+
+    @Override
+    public void findPairs(List<PhysicsBody> bodies, PairList out) {
+        rebuild(bodies);
+        for (int c = 0; c < cellCount; c++) {
+            int population = cellPopulation[c];
+            // 格子内没有任何物体的类别落在其他物体的掩码中时整格跳过
+            // 格子内全是休眠物体时也跳过
+            if (population < 2 || cellAwake[c] == 0 || (cellCategories[c] & cellMasks[c]) == 0) {
+                continue;
+            }
+            if (scratch.length < population) {
+                scratch = new int[Math.max(population, scratch.length * 2)];
+            }
+            // 链表按插入逆序，翻转回下标升序
+            int n = population;
+            for (int e = cellHead[c]; e >= 0; e = entryNext[e]) {
+                scratch[--n] = entryBody[e];
+            }
+            for (int p = 0; p < population; p++) {
+                int a = scratch[p];
+                for (int q = p + 1; q < population; q++) {
+                    int b = scratch[q];
+                    if ((categories[a] & masks[b]) == 0 || (categories[b] & masks[a]) == 0) continue;
+                    if (sleeping[a] && sleeping[b]) continue;
+                    if (!overlaps(a, b)) continue;
+                    // 同一对可能同时出现在多个格子里，只在重叠区域左上角所在的格子输出
+                    if (cellCoord(Math.max(minX[a], minX[b])) != cellX[c]
+                        || cellCoord(Math.max(minY[a], minY[b])) != cellY[c]) continue;
+                    out.add(a, b);
+                }
+            }
+        }
+        for (int k = 0; k < overflowCount; k++) {
+            int a = overflow[k];
+            for (int b = 0; b < bodyCount; b++) {
+                // 两个都在溢出列表中的对只由下标小的一方输出
+                if (b == a || (overflowed[b] && b < a)) continue;
+                if ((categories[a] & masks[b]) == 0 || (categories[b] & masks[a]) == 0) continue;
+                if (sleeping[a] && sleeping[b]) continue;
+                if (!overlaps(a, b)) continue;
+                out.add(Math.min(a, b), Math.max(a, b));
+            }
+        }
+    }
+
+    // 按当前位置重建网格
+    private void rebuild(List<PhysicsBody> bodies) {
+        for (int c = 0; c < cellCount; c++) {
+            slotCells[cellSlot[c]] = -1;
+        }
+        cellCount = 0;
+        entryCount = 0;
+        overflowCount = 0;
+
+        int count = bodies.size();
+        bodyCount = count;
+        if (minX.length < count) {
+            int n = Math.max(count, minX.length * 2);
+            minX = Arrays.copyOf(minX, n);
+            minY = Arrays.copyOf(minY, n);
+            maxX = Arrays.copyOf(maxX, n);
+            maxY = Arrays.copyOf(maxY, n);
+            categories = Arrays.copyOf(categories, n);
+            masks = Arrays.copyOf(masks, n);
+            sleeping = Arrays.copyOf(sleeping, n);
+            overflowed = Arrays.copyOf(overflowed, n);
+        }
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = bodies.get(i);
+            minX[i] = body.minX;
+            minY[i] = body.minY;
+            maxX[i] = body.maxX;
+            maxY[i] = body.maxY;
+            categories[i] = body.categoryBits;
+            masks[i] = body.maskBits;
+            sleeping[i] = body.sleeping;
+
+            overflowed[i] = !fitsGrid(i);
+            if (overflowed[i]) {
+                addOverflow(i);
+                continue;
+            }
+            int x0 = cellCoord(minX[i]);
+            int x1 = cellCoord(maxX[i]);
+            int y0 = cellCoord(minY[i]);
+            int y1 = cellCoord(maxY[i]);
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int c = cellAt(cx, cy);
+                    addEntry(c, i);
+                    cellPopulation[c]++;
+                    cellCategories[c] |= body.categoryBits;
+                    cellMasks[c] |= body.maskBits;
+                    if (!body.sleeping) {
+                        cellAwake[c]++;
+                    }
+                }
+            }
+        }
+    }
+
+    // 包围盒的格子坐标都在范围内（NaN 不满足比较）且覆盖的格子数不超过上限
+    private boolean fitsGrid(int i) {
+        float x0 = minX[i] * inverseCellSize;
+        float x1 = maxX[i] * inverseCellSize;
+        float y0 = minY[i] * inverseCellSize;
+        float y1 = maxY[i] * inverseCellSize;
+        if (!(x0 >= -MAX_CELL_COORD && x1 <= MAX_CELL_COORD && x0 <= x1
+            && y0 >= -MAX_CELL_COORD && y1 <= MAX_CELL_COORD && y0 <= y1)) {
+            return false;
+        }
+        long columns = (long) cellCoord(maxX[i]) - cellCoord(minX[i]) + 1;
+        long rows = (long) cellCoord(maxY[i]) - cellCoord(minY[i]) + 1;
+        return columns * rows <= MAX_BODY_CELLS;
+    }
+
+    private void addOverflow(int body) {
+        if (overflowCount == overflow.length) {
+            overflow = Arrays.copyOf(overflow, overflowCount * 2);
+        }
+        overflow[overflowCount++] = body;
+    }
+
+    private int cellCoord(float v) {
+        return (int) Math.floor(v * inverseCellSize);
+    }
+
+    private boolean overlaps(int a, int b) {
+        return minX[a] <= maxX[b] && maxX[a] >= minX[b]
+            && minY[a] <= maxY[b] && maxY[a] >= minY[b];
+    }
+
+    // 查找格子，不存在时创建
+    private int cellAt(int cx, int cy) {
+        long key = ((long) cx << 32) | (cy & 0xffffffffL);
+        int mask = slotKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int c = slotCells[slot];
+            if (c < 0) break;
+            if (slotKeys[slot] == key) return c;
+            slot = (slot + 1) & mask;
+        }
+        if ((cellCount + 1) * 2 > slotKeys.length) {
+            growTable();
+            return cellAt(cx, cy);
+        }
+        if (cellCount == cellX.length) {
+            int n = cellCount * 2;
+            cellX = Arrays.copyOf(cellX, n);
+            cellY = Arrays.copyOf(cellY, n);
+            cellSlot = Arrays.copyOf(cellSlot, n);
+            cellHead = Arrays.copyOf(cellHead, n);
+            cellPopulation = Arrays.copyOf(cellPopulation, n);
+            cellCategories = Arrays.copyOf(cellCategories, n);
+            cellMasks = Arrays.copyOf(cellMasks, n);
+            cellAwake = Arrays.copyOf(cellAwake, n);
+        }
+        int c = cellCount++;
+        cellX[c] = cx;
+        cellY[c] = cy;
+        cellSlot[c] = slot;
+        cellHead[c] = -1;
+        cellPopulation[c] = 0;
+        cellCategories[c] = 0;
+        cellMasks[c] = 0;
+        cellAwake[c] = 0;
+        slotKeys[slot] = key;
+        slotCells[slot] = c;
+        return c;
+    }
+
+    // 哈希表扩容为两倍并重新放入已有格子
+    private void growTable() {
+        int capacity = slotKeys.length * 2;
+        slotKeys = new long[capacity];
+        slotCells = new int[capacity];
+        Arrays.fill(slotCells, -1);
+        int mask = capacity - 1;
+        for (int c = 0; c < cellCount; c++) {
+            long key = ((long) cellX[c] << 32) | (cellY[c] & 0xffffffffL);
+            int slot = hash(key) & mask;
+            while (slotCells[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotKeys[slot] = key;
+            slotCells[slot] = c;
+            cellSlot[c] = slot;
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void addEntry(int cell, int body) {
+        if (entryCount == entryBody.length) {
+            int n = entryCount * 2;
+            entryBody = Arrays.copyOf(entryBody, n);
+            entryNext = Arrays.copyOf(entryNext, n);
+        }
+        int e = entryCount++;
+        entryBody[e] = body;
+        entryNext[e] = cellHead[cell];
+        cellHead[cell] = e;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 排序扫描（Sweep and Prune）宽相：沿X轴维护持久化的端点数组，
+ * 物体每步移动很少时端点顺序基本不变，用插入排序增量调整只需接近线性的时间；
+ * 扫描时X区间重叠的物体处于活动集合中，再比较Y区间得到候选对（双方都休眠时跳过）
+ * 端点编码为 long：高32位是可比较的坐标位，低32位是 (是否为右端点 << 31) | 代理编号，
+ * 坐标相同时左端点排在右端点之前，边界相接也算重叠（与 AABB.collidesWith 一致）
+ */
+final class SweepAndPrune implements Broadphase {
+    private static final long MAX_FLAG = 0x80000000L;
+    private static final int PROXY_MASK = 0x7fffffff;
+
+    private long[] endpoints = new long[128];
+    private int endpointCount;
+
+    // 代理（每个物理体一个），编号可复用
+    private PhysicsBody[] proxyBody = new PhysicsBody[64];
+    private int[] proxyIndex = new int[64];  // 本步在物理体列表中的下标
+    private int[] proxyCategory = new int[64];
+    private int[] proxyMask = new int[64];
+    private boolean[] proxySleeping = new boolean[64];
+    private float[] proxyMinX = new float[64];
+    private float[] proxyMaxX = new float[64];
+    private float[] proxyMinY = new float[64];
+    private float[] proxyMaxY = new float[64];
+    private int proxyHighWater;              // 用过的最大编号+1
+    private int[] freeProxies = new int[16];
+    private int freeCount;
+    private int liveProxies;
+
+    // 扫描时的活动集合（交换删除，activePos 记录代理在集合中的位置）
+    private int[] active = new int[64];
+    private int[] activePos = new int[64];
+
+    private int stamp;
+
+    @Override
+    public void findPairs(List<PhysicsBody> bodies, PairList out) {
+        int count = bodies.size();
+        stamp++;
+
+        // 1. 标记本步存在的物理体，新物体分配代理并把端点追加到数组末尾
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = bodies.get(i);
+            body.stamp = stamp;
+            if (body.proxy < 0 || body.proxy >= proxyHighWater || proxyBody[body.proxy] != body) {
+                body.proxy = allocateProxy(body);
+                appendEndpoint(body.proxy);
+                appendEndpoint(body.proxy | (int) MAX_FLAG);
+                added++;
+            }
+        }
+
+        // 2. 移除已不在列表中的物理体的端点（保持其余端点的相对顺序）
+        if (liveProxies > count) {
+            removeStaleEndpoints();
+        }
+
+        // 3. 刷新代理的包围盒与下标，并把新坐标写回端点
+        for (int i = 0; i < count; i++) {
+            PhysicsBody body = bodies.get(i);
+            int p = body.proxy;
+            proxyIndex[p] = i;
+            proxyCategory[p] = body.categoryBits;
+            proxyMask[p] = body.maskBits;
+            proxySleeping[p] = body.sleeping;
+            proxyMinX[p] = body.minX;
+            proxyMaxX[p] = body.maxX;
+            proxyMinY[p] = body.minY;
+            proxyMaxY[p] = body.maxY;
+        }
+        for (int e = 0; e < endpointCount; e++) {
+            int low = (int) endpoints[e];
+            int p = low & PROXY_MASK;
+            endpoints[e] = pack(low < 0 ? proxyMaxX[p] : proxyMinX[p], low);
+        }
+
+        // 4. 排序：大量新物体时整体排序，否则增量插入排序
+        if (added * 8 > count) {
+            Arrays.sort(endpoints, 0, endpointCount);
+        } else {
+            insertionSort();
+        }
+
+        // 5. 扫描
+        sweep(out);
+    }
+
+    private void sweep(PairList out) {
+        int activeCount = 0;
+        for (int e = 0; e < endpointCount; e++) {
+            int low = (int) endpoints[e];
+            int p = low & PROXY_MASK;
+            if (low < 0) {
+                // 右端点：离开活动集合
+                int pos = activePos[p];
+                int last = active[--activeCount];
+                active[pos] = last;
+                activePos[last] = pos;
+                continue;
+            }
+            // 左端点：与活动集合中的物体X区间都重叠，再检查碰撞掩码和Y区间
+            int category = proxyCategory[p];
+            int mask = proxyMask[p];
+            float minY = proxyMinY[p];
+            float maxY = proxyMaxY[p];
+            boolean asleep = proxySleeping[p];
+            for (int k = 0; k < activeCount; k++) {
+                int q = active[k];
+                if ((mask & proxyCategory[q]) == 0 || (category & proxyMask[q]) == 0) continue;
+                if (asleep && proxySleeping[q]) continue;
+                if (minY > proxyMaxY[q] || maxY < proxyMinY[q]) continue;
+                int ip = proxyIndex[p];
+                int iq = proxyIndex[q];
+                if (ip < iq) {
+                    out.add(ip, iq);
+                } else {
+                    out.add(iq, ip);
+                }
+            }
+            active[activeCount] = p;
+            activePos[p] = activeCount++;
+        }
+    }
+
+    // 增量插入排序：端点大多已经有序，每个端点只需向前移动很少几步
+    private void insertionSort() {
+        long[] keys = endpoints;
+        for (int i = 1; i < endpointCount; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            if (keys[j] <= key) continue;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+    }
+
+    private void removeStaleEndpoints() {
+        int kept = 0;
+        for (int e = 0; e < endpointCount; e++) {
+            long key = endpoints[e];
+            int low = (int) key;
+            int p = low & PROXY_MASK;
+            PhysicsBody body = proxyBody[p];
+            if (body.stamp == stamp && body.proxy == p) {
+                endpoints[kept++] = key;
+            } else if (low < 0) {
+                // 每个代理只有一个右端点，在这里回收代理
+                releaseProxy(p);
+            }
+        }
+        endpointCount = kept;
+    }
+
+    private int allocateProxy(PhysicsBody body) {
+        int p;
+        if (freeCount > 0) {
+            p = freeProxies[--freeCount];
+        } else {
+            p = proxyHighWater++;
+            if (p == proxyBody.length) {
+                int n = p * 2;
+                proxyBody = Arrays.copyOf(proxyBody, n);
+                proxyIndex = Arrays.copyOf(proxyIndex, n);
+                proxyCategory = Arrays.copyOf(proxyCategory, n);
+                proxyMask = Arrays.copyOf(proxyMask, n);
+                proxySleeping = Arrays.copyOf(proxySleeping, n);
+                proxyMinX = Arrays.copyOf(proxyMinX, n);
+                proxyMaxX = Arrays.copyOf(proxyMaxX, n);
+                proxyMinY = Arrays.copyOf(proxyMinY, n);
+                proxyMaxY = Arrays.copyOf(proxyMaxY, n);
+                active = Arrays.copyOf(active, n);
+                activePos = Arrays.copyOf(activePos, n);
+            }
+        }
+        proxyBody[p] = body;
+        liveProxies++;
+        return p;
+    }
+
+    private void releaseProxy(int p) {
+        PhysicsBody body = proxyBody[p];
+        if (body.proxy == p) {
+            body.proxy = -1;
+        }
+        proxyBody[p] = null;
+        if (freeCount == freeProxies.length) {
+            freeProxies = Arrays.copyOf(freeProxies, freeCount * 2);
+        }
+        freeProxies[freeCount++] = p;
+        liveProxies--;
+    }
+
+    private void appendEndpoint(int low) {
+        if (endpointCount == endpoints.length) {
+            endpoints = Arrays.copyOf(endpoints, endpointCount * 2);
+        }
+        // 坐标在第3步统一写入
+        endpoints[endpointCount++] = low & 0xffffffffL;
+    }
+
+    // 把坐标转换为可按有符号整数比较的位模式放在高32位
+    private static long pack(float value, int low) {
+        int bits = Float.floatToIntBits(value + 0.0f); // +0.0f 把 -0.0 规范为 0.0
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | (low & 0xffffffffL);
+    }
+}
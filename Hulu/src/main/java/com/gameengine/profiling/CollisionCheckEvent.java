@@ -0,0 +1,28 @@
+package com.gameengine.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次 GameLogic.checkCollisions（玩家-敌人、子弹-角色检测）
+ */
+@Name("com.gameengine.CollisionCheck")
+@Label("Gameplay Collision Check")
+@Category({"Game Engine", "Gameplay"})
+@StackTrace(false)
+public class CollisionCheckEvent extends Event {
+    @Label("Enemies")
+    public int enemies;
+
+    @Label("Bullets")
+    public int bullets;
+
+    @Label("Characters")
+    public int characters;
+
+    @Label("Pairs Tested")
+    public int pairsTested;
+}
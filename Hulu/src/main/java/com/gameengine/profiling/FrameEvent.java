@@ -0,0 +1,32 @@
+package com.gameengine.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：引擎主循环的一帧（开始到结束，不含帧率等待）
+ */
+@Name("com.gameengine.Frame")
+@Label("Engine Frame")
+@Category({"Game Engine", "Core"})
+@Description("一次主循环迭代：更新、渲染与交换缓冲区")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame Number")
+    public long frame;
+
+    @Label("Frame Time")
+    @Description("本帧测得的真实时间间隔（秒）")
+    public float frameTime;
+
+    @Label("Delta Time")
+    @Description("最后一次模拟步使用的时间步长（秒）")
+    public float deltaTime;
+
+    @Label("Simulation Steps")
+    public int simulationSteps;
+}
@@ -0,0 +1,219 @@
+package com.gameengine.profiling;
+
+import com.gameengine.graphics.IRenderer;
+
+import java.util.Arrays;
+
+/**
+ * 帧性能分析器，记录每帧各阶段耗时
+ * 同一阶段在一帧内可能执行多次（追赶帧会跑多个固定步），begin/end 只累加耗时，
+ * 由 endFrame 为本帧执行过的每个阶段记录一个样本，使百分位统计真正是按帧的
+ * 每个阶段保留最近 WINDOW_SIZE 个样本的环形缓冲区，按需计算 p50/p95/p99/max，
+ * 记录本身只有两次 nanoTime 和几次数组写入，可以在正式运行时常开
+ */
+public class FrameProfiler {
+    /**
+     * 帧内被计时的阶段
+     */
+    public enum Phase {
+        FRAME("Frame"),                 // 整帧工作时间（不含帧率等待）
+        UPDATE("Update"),               // 引擎更新（可能包含多个固定步）
+        SCENE_UPDATE("Scene.update"),   // 场景更新（本帧所有固定步合计）
+        PHYSICS("Physics"),             // GameLogic.updatePhysics（本帧合计）
+        COLLISIONS("Collisions"),       // GameLogic.checkCollisions（本帧合计）
+        RECORDING("Recording"),         // RecordingService.update（本帧合计）
+        RENDER("Render"),               // 场景渲染
+        SWAP("Swap");                   // 交换缓冲区与事件处理
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * 单个阶段的统计结果（毫秒）
+     */
+    public static class PhaseStats {
+        public final int samples;
+        public final float p50;
+        public final float p95;
+        public final float p99;
+        public final float max;
+
+        public PhaseStats(int samples, float p50, float p95, float p99, float max) {
+            this.samples = samples;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+
+    private static final int WINDOW_SIZE = 256;         // 每个阶段保留的样本数
+    private static final int OVERLAY_REFRESH_FRAMES = 30; // 覆盖层统计刷新间隔（帧）
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[][] samples;     // 每个阶段的环形缓冲区（纳秒）
+    private final int[] sampleCount;    // 每个阶段已记录的样本数（上限为窗口大小）
+    private final int[] cursor;         // 每个阶段下一个写入位置
+    private final long[] startTimes;    // 每个阶段当前计时的开始时间
+    private final long[] frameTotals;   // 每个阶段在本帧内累计的耗时（纳秒）
+    private final boolean[] frameTouched; // 每个阶段本帧是否执行过
+    private final long[] scratch;       // 计算百分位时的排序缓冲区
+    private boolean enabled;
+    private boolean overlayVisible;
+    private int overlayFrameCounter;
+    private final String[] overlayLines; // 缓存的覆盖层文本，避免每帧格式化
+
+    public FrameProfiler() {
+        this.samples = new long[PHASES.length][WINDOW_SIZE];
+        this.sampleCount = new int[PHASES.length];
+        this.cursor = new int[PHASES.length];
+        this.startTimes = new long[PHASES.length];
+        this.frameTotals = new long[PHASES.length];
+        this.frameTouched = new boolean[PHASES.length];
+        this.scratch = new long[WINDOW_SIZE];
+        this.enabled = true;
+        this.overlayVisible = false;
+        this.overlayFrameCounter = 0;
+        this.overlayLines = new String[PHASES.length];
+    }
+
+    /**
+     * 开始计时一个阶段
+     */
+    public void begin(Phase phase) {
+        if (!enabled) return;
+        startTimes[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * 结束计时一个阶段，耗时累加到本帧（样本在 endFrame 时记录）
+     */
+    public void end(Phase phase) {
+        if (!enabled) return;
+        int i = phase.ordinal();
+        long start = startTimes[i];
+        if (start == 0) return; // 未调用 begin（例如中途才启用）
+        frameTotals[i] += System.nanoTime() - start;
+        frameTouched[i] = true;
+        startTimes[i] = 0;
+    }
+
+    /**
+     * 结束一帧：本帧执行过的每个阶段记录一个样本（多次执行的耗时之和）
+     */
+    public void endFrame() {
+        for (int i = 0; i < PHASES.length; i++) {
+            if (frameTouched[i]) {
+                record(i, frameTotals[i]);
+                frameTotals[i] = 0;
+                frameTouched[i] = false;
+            }
+        }
+    }
+
+    private void record(int phaseIndex, long nanos) {
+        long[] buffer = samples[phaseIndex];
+        int c = cursor[phaseIndex];
+        buffer[c] = nanos;
+        cursor[phaseIndex] = (c + 1) % WINDOW_SIZE;
+        if (sampleCount[phaseIndex] < WINDOW_SIZE) {
+            sampleCount[phaseIndex]++;
+        }
+    }
+
+    /**
+     * 计算阶段在最近窗口内的统计值，无样本时返回 null
+     */
+    public PhaseStats getStats(Phase phase) {
+        int i = phase.ordinal();
+        int n = sampleCount[i];
+        if (n == 0) return null;
+        System.arraycopy(samples[i], 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        return new PhaseStats(
+            n,
+            toMillis(scratch[percentileIndex(n, 0.50)]),
+            toMillis(scratch[percentileIndex(n, 0.95)]),
+            toMillis(scratch[percentileIndex(n, 0.99)]),
+            toMillis(scratch[n - 1])
+        );
+    }
+
+    private static int percentileIndex(int n, double p) {
+        int idx = (int) Math.ceil(p * n) - 1;
+        return Math.max(0, Math.min(n - 1, idx));
+    }
+
+    private static float toMillis(long nanos) {
+        return nanos / 1_000_000.0f;
+    }
+
+    /**
+     * 清空所有样本
+     */
+    public void reset() {
+        Arrays.fill(sampleCount, 0);
+        Arrays.fill(cursor, 0);
+        Arrays.fill(startTimes, 0);
+        Arrays.fill(frameTotals, 0);
+        Arrays.fill(frameTouched, false);
+        Arrays.fill(overlayLines, null);
+        overlayFrameCounter = 0;
+    }
+
+    /**
+     * 在屏幕左上角绘制各阶段耗时（仅在覆盖层可见时绘制）
+     */
+    public void renderOverlay(IRenderer renderer) {
+        if (!overlayVisible || renderer == null) return;
+
+        // 统计数据每隔若干帧刷新一次，避免每帧排序和字符串格式化
+        if (overlayFrameCounter++ % OVERLAY_REFRESH_FRAMES == 0) {
+            for (Phase phase : PHASES) {
+                PhaseStats stats = getStats(phase);
+                overlayLines[phase.ordinal()] = stats == null ? null : String.format(
+                    "%-12s p50 %5.2f  p95 %5.2f  p99 %5.2f  max %5.2f",
+                    phase.getLabel(), stats.p50, stats.p95, stats.p99, stats.max);
+            }
+        }
+
+        float y = 10;
+        for (String line : overlayLines) {
+            if (line == null) continue;
+            renderer.drawText(10, y, line, 0.6f, 1.0f, 0.6f, 1.0f);
+            y += 18;
+        }
+    }
+
+    // Getters and Setters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            Arrays.fill(startTimes, 0);
+            Arrays.fill(frameTotals, 0);
+            Arrays.fill(frameTouched, false);
+        }
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    public void setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+        this.overlayFrameCounter = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package com.gameengine.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次 PhysicsWorld.update
+ */
+@Name("com.gameengine.PhysicsStep")
+@Label("Physics Step")
+@Category({"Game Engine", "Physics"})
+@StackTrace(false)
+public class PhysicsStepEvent extends Event {
+    @Label("Delta Time")
+    public float deltaTime;
+
+    @Label("Body Count")
+    public int bodyCount;
+
+    @Label("Removed Bodies")
+    public int removedBodies;
+
+    @Label("Sleeping Bodies")
+    public int sleepingBodies;
+
+    @Label("Substeps")
+    public int substeps;
+
+    @Label("Pair Tests")
+    public int pairTests;
+
+    @Label("Contacts")
+    public int contacts;
+
+    @Label("Continuous Hits")
+    public int continuousHits;
+}
@@ -0,0 +1,25 @@
+package com.gameengine.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：录像写入线程一次批量写出队列中的数据
+ */
+@Name("com.gameengine.RecordingFlush")
+@Label("Recording Flush")
+@Category({"Game Engine", "Recording"})
+@StackTrace(false)
+public class RecordingFlushEvent extends Event {
+    @Label("Lines Written")
+    public int linesWritten;
+
+    @Label("Queue Depth")
+    public int queueDepth;
+
+    @Label("Dropped Lines")
+    public long droppedLines;
+}
@@ -0,0 +1,160 @@
+package com.gameengine.recording;
+
+import com.gameengine.components.RenderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.EntityId;
+import com.gameengine.core.GameObject;
+import com.gameengine.math.Vector2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 关键帧快照：在主线程按场景顺序拷贝实体的名称、编号、位置和渲染信息，
+ * 之后可在任意线程序列化为JSON，序列化期间场景可以继续更新
+ */
+final class KeyframeSnapshot {
+    private final double timestamp;
+    private int count;
+    private String[] names;
+    private long[] ids;
+    private float[] xs;
+    private float[] ys;
+    private String[] renderTypes; // 仅名称无固定格式的对象使用，null表示CUSTOM
+    private float[] sizes;        // 每个对象2个：w, h
+    private float[] colors;       // 每个对象4个：r, g, b, a
+
+    KeyframeSnapshot(double timestamp, int capacity) {
+        this.timestamp = timestamp;
+        int n = Math.max(1, capacity);
+        this.names = new String[n];
+        this.ids = new long[n];
+        this.xs = new float[n];
+        this.ys = new float[n];
+        this.renderTypes = new String[n];
+        this.sizes = new float[n * 2];
+        this.colors = new float[n * 4];
+    }
+
+    /**
+     * 拷贝场景中所有带变换组件的对象
+     */
+    static KeyframeSnapshot capture(double timestamp, List<GameObject> objs) {
+        KeyframeSnapshot snapshot = new KeyframeSnapshot(timestamp, objs.size());
+        for (int i = 0; i < objs.size(); i++) {
+            snapshot.add(objs.get(i));
+        }
+        return snapshot;
+    }
+
+    private void add(GameObject obj) {
+        TransformComponent tc = obj.getComponent(TransformComponent.class);
+        if (tc == null) return;
+        if (count == names.length) {
+            grow();
+        }
+        int i = count++;
+        names[i] = obj.getName();
+        ids[i] = obj.getId();
+        xs[i] = tc.getX();
+        ys[i] = tc.getY();
+        // 玩家、敌人、装饰物和子弹使用固定的渲染描述，只有其他对象需要拷贝渲染组件
+        RenderComponent rc = hasFixedFormat(names[i]) ? null : obj.getComponent(RenderComponent.class);
+        if (rc != null) {
+            Vector2 size = rc.getSize();
+            RenderComponent.Color color = rc.getColor();
+            renderTypes[i] = rc.getRenderType().name();
+            sizes[i * 2] = size.x;
+            sizes[i * 2 + 1] = size.y;
+            colors[i * 4] = color.r;
+            colors[i * 4 + 1] = color.g;
+            colors[i * 4 + 2] = color.b;
+            colors[i * 4 + 3] = color.a;
+        } else {
+            renderTypes[i] = null;
+        }
+    }
+
+    private static boolean hasFixedFormat(String name) {
+        return name.equals("Player") || name.startsWith("Enemy") || name.startsWith("AIPlayer")
+            || name.startsWith("Decoration") || name.startsWith("Bullet");
+    }
+
+    private void grow() {
+        int n = names.length * 2;
+        names = Arrays.copyOf(names, n);
+        ids = Arrays.copyOf(ids, n);
+        xs = Arrays.copyOf(xs, n);
+        ys = Arrays.copyOf(ys, n);
+        renderTypes = Arrays.copyOf(renderTypes, n);
+        sizes = Arrays.copyOf(sizes, n * 2);
+        colors = Arrays.copyOf(colors, n * 4);
+    }
+
+    /**
+     * 有效实体数量（为0时不写关键帧）
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * 序列化为一行关键帧JSON（可在工作线程调用）
+     */
+    String toJson() {
+        StringBuilder sb = new StringBuilder(64 + count * 96);
+        sb.append("{\"type\":\"keyframe\",\"t\":").append(timestamp).append(",\"entities\":[");
+        for (int i = 0; i < count; i++) {
+            String name = names[i];
+            if (i > 0) sb.append(',');
+            // 为所有对象使用name作为基本标识，但为敌人添加uniqueId以确保唯一性
+            sb.append('{')
+              .append("\"id\":\"").append(name).append("\",").append("\"x\":")
+              .append(Math.round(xs[i] * 100.0) / 100.0).append(',').append("\"y\":")
+              .append(Math.round(ys[i] * 100.0) / 100.0); // 保持与示例一致的两位小数
+
+            // 为敌人对象添加唯一标识符，解决录像回放时的位移问题
+            if (name.startsWith("Enemy") || name.startsWith("AIPlayer")) {
+                sb.append(',').append("\"uniqueId\":\"").append(EntityId.toString(ids[i])).append("\"");
+            }
+
+            // 处理渲染信息
+            if (name.equals("Player")) {
+                // Player对象特殊处理，直接标记为CUSTOM
+                sb.append(',').append("\"rt\":\"CUSTOM\"");
+            } else if (name.startsWith("Enemy") || name.startsWith("AIPlayer")) {
+                // 敌人或AIPlayer处理为RECTANGLE类型
+                sb.append(',')
+                  .append("\"rt\":\"RECTANGLE\",").append("\"w\":20,").append("\"h\":20,")
+                  .append("\"color\":[0,0.8,1,1]"); // 与示例文件中的颜色保持一致
+            } else if (name.startsWith("Decoration")) {
+                // 装饰物处理为CIRCLE类型
+                sb.append(',')
+                  .append("\"rt\":\"CIRCLE\",").append("\"w\":5,").append("\"h\":5,")
+                  .append("\"color\":[0.5,0.5,1,0.8]"); // 与示例文件中的颜色保持一致
+            } else if (name.startsWith("Bullet")) {
+                // 子弹处理，不添加额外属性
+                sb.append(',')
+                  .append("\"rt\":\"CIRCLE\",").append("\"w\":4,").append("\"h\":4,")
+                  .append("\"color\":[0.2,0.2,1,1]"); // 子弹颜色
+            } else if (renderTypes[i] != null) {
+                // 其他对象按渲染组件输出
+                sb.append(',')
+                  .append("\"rt\":\"").append(renderTypes[i]).append("\",").append("\"w\":")
+                  .append(Math.round(sizes[i * 2] * 10.0) / 10.0).append(',').append("\"h\":")
+                  .append(Math.round(sizes[i * 2 + 1] * 10.0) / 10.0).append(',')
+                  .append("\"color\":[")
+                  .append(Math.round(colors[i * 4] * 10.0) / 10.0).append(',')
+                  .append(Math.round(colors[i * 4 + 1] * 10.0) / 10.0).append(',')
+                  .append(Math.round(colors[i * 4 + 2] * 10.0) / 10.0).append(',')
+                  .append(Math.round(colors[i * 4 + 3] * 10.0) / 10.0).append(']');
+            } else {
+                // 标记自定义渲染
+                sb.append(',').append("\"rt\":\"CUSTOM\"");
+            }
+            sb.append('}');
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+}
@@ -1,13 +1,14 @@
 package com.gameengine.recording;
 
-import com.gameengine.components.TransformComponent;
-import com.gameengine.core.GameObject;
+import com.gameengine.core.GameEngine;
+import com.gameengine.core.JobHandle;
+import com.gameengine.core.JobSystem;
 import com.gameengine.input.InputManager;
+import com.gameengine.profiling.RecordingFlushEvent;
 import com.gameengine.scene.Scene;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -27,6 +28,8 @@ public class RecordingService {
     private final DecimalFormat qfmt;                               // 数字格式化器：控制小数位数（减少存储体积）
     private Scene lastFrame;                                        // 用于停止时写最后关键帧
     private String recordingFileName;                              // 当前录制的文件名
+    private volatile long droppedLines;                             // 因队列已满被丢弃的行数
+    private JobHandle pendingKeyframe;                              // 正在序列化的关键帧任务
 
     public RecordingService(RecordingConfig config) {
         this.config = config;
@@ -78,7 +81,22 @@ public class RecordingService {
                         try { Thread.sleep(2); } catch (InterruptedException ignored) {}
                         continue;
                     }
-                    storage.writeLine(s);
+                    // 一次性写出当前积压的所有行，并作为一次flush事件上报
+                    RecordingFlushEvent event = new RecordingFlushEvent();
+                    event.begin();
+                    int backlog = lineQueue.size() + 1;
+                    int written = 0;
+                    do {
+                        storage.writeLine(s);
+                        written++;
+                    } while ((s = lineQueue.poll()) != null);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.linesWritten = written;
+                        event.queueDepth = backlog;
+                        event.droppedLines = droppedLines;
+                        event.commit();
+                    }
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -105,6 +123,8 @@ public class RecordingService {
                 writeKeyframe(lastFrame);
             }
         } catch (Exception ignored) {}
+        // 写入线程在停止后清空队列即退出，必须先等最后的关键帧入队
+        awaitPendingKeyframe();
         recording = false;
         try { writerThread.join(500); } catch (InterruptedException ignored) {}
     }
@@ -115,6 +135,7 @@ public class RecordingService {
         keyframeElapsed += deltaTime;
         sampleAccumulator += deltaTime;
         lastFrame = scene;
+        awaitPendingKeyframe(); // 通常已由帧栅栏完成，这里只在同一帧多步模拟时才会等待
 
         // 1. 记录输入事件（仅“刚按下”的按键）
         // input events (sample at native frequency, but只写有justPressed)
@@ -144,91 +165,41 @@ public class RecordingService {
         }
     }
 
+    /**
+     * 在主线程拷贝关键帧快照，序列化交给引擎的任务系统（没有任务系统时直接序列化）
+     * @return 是否有有效实体（为false时不写关键帧）
+     */
     private boolean writeKeyframe(Scene scene) {
-        StringBuilder sb = new StringBuilder();
         // 确保时间戳格式与示例文件一致，保留两位小数
         double timestamp = Math.round(elapsed * 100.0) / 100.0;
-        sb.append("{\"type\":\"keyframe\",\"t\":").append(timestamp).append(",\"entities\":[");
-        List<GameObject> objs = scene.getGameObjects();
-        boolean first = true;
-        int count = 0;          // 记录有效实体数量（避免空关键帧）
-
-        for (GameObject obj : objs) {
-            TransformComponent tc = obj.getComponent(TransformComponent.class);
-            if (tc == null) continue;
-
-            // 获取实体位置
-            float x = tc.getPosition().x;
-            float y = tc.getPosition().y;
-
-            // 构建单个实体的JSON
-            if (!first) sb.append(',');
-            // 为所有对象使用name作为基本标识，但为敌人添加uniqueId以确保唯一性
-            sb.append('{')
-              .append("\"id\":\"").append(obj.getName()).append("\",").append("\"x\":")
-              .append(Math.round(x * 100.0) / 100.0).append(',').append("\"y\":")
-              .append(Math.round(y * 100.0) / 100.0); // 保持与示例一致的两位小数
-            
-            // 为敌人对象添加唯一标识符，解决录像回放时的位移问题
-            if (obj.getName().startsWith("Enemy") || obj.getName().startsWith("AIPlayer")) {
-                sb.append(',').append("\"uniqueId\":\"").append(obj.getUniqueId()).append("\"");
-            }
-
-            // 处理渲染信息
-            if (obj.getName().equals("Player")) {
-                // Player对象特殊处理，直接标记为CUSTOM
-                sb.append(',').append("\"rt\":\"CUSTOM\"");
-            } else if (obj.getName().startsWith("Enemy") || obj.getName().startsWith("AIPlayer")) {
-                // 敌人或AIPlayer处理为RECTANGLE类型
-                sb.append(',')
-                  .append("\"rt\":\"RECTANGLE\",").append("\"w\":20,").append("\"h\":20,")
-                  .append("\"color\":[0,0.8,1,1]"); // 与示例文件中的颜色保持一致
-            } else if (obj.getName().startsWith("Decoration")) {
-                // 装饰物处理为CIRCLE类型
-                sb.append(',')
-                  .append("\"rt\":\"CIRCLE\",").append("\"w\":5,").append("\"h\":5,")
-                  .append("\"color\":[0.5,0.5,1,0.8]"); // 与示例文件中的颜色保持一致
-            } else if (obj.getName().startsWith("Bullet")) {
-                // 子弹处理，不添加额外属性
-                sb.append(',')
-                  .append("\"rt\":\"CIRCLE\",").append("\"w\":4,").append("\"h\":4,")
-                  .append("\"color\":[0.2,0.2,1,1]"); // 子弹颜色
-            } else {
-                // 其他对象的处理
-                com.gameengine.components.RenderComponent rc = obj.getComponent(com.gameengine.components.RenderComponent.class);
-                if (rc != null) {
-                    com.gameengine.components.RenderComponent.RenderType rt = rc.getRenderType();
-                    com.gameengine.math.Vector2 sz = rc.getSize();
-                    com.gameengine.components.RenderComponent.Color col = rc.getColor();
-                    sb.append(',')
-                      .append("\"rt\":\"").append(rt.name()).append("\",").append("\"w\":")
-                      .append(Math.round(sz.x * 10.0) / 10.0).append(',').append("\"h\":")
-                      .append(Math.round(sz.y * 10.0) / 10.0).append(',')
-                      .append("\"color\":[")
-                      .append(Math.round(col.r * 10.0) / 10.0).append(',')
-                      .append(Math.round(col.g * 10.0) / 10.0).append(',')
-                      .append(Math.round(col.b * 10.0) / 10.0).append(',')
-                      .append(Math.round(col.a * 10.0) / 10.0).append(']');
-                } else {
-                    // 标记自定义渲染
-                    sb.append(',').append("\"rt\":\"CUSTOM\"");
-                }
-            }
-
-            sb.append('}');
-            first = false;
-            count++;
+        KeyframeSnapshot snapshot = KeyframeSnapshot.capture(timestamp, scene.getGameObjectView());
+        if (snapshot.size() == 0) return false;
+
+        GameEngine engine = scene.getEngine();
+        JobSystem jobs = engine != null ? engine.getJobSystem() : null;
+        if (jobs != null && !jobs.isShutdown()) {
+            // 依赖上一个关键帧任务，保证关键帧按时间顺序入队
+            pendingKeyframe = jobs.submit(() -> enqueue(snapshot.toJson()), pendingKeyframe);
+        } else {
+            enqueue(snapshot.toJson());
         }
-        sb.append("]}");
-        if (count == 0) return false;
-        enqueue(sb.toString());
         return true;
     }
 
+    // 等待尚未入队的关键帧，保证其后写入的行排在它后面
+    private void awaitPendingKeyframe() {
+        JobHandle pending = pendingKeyframe;
+        if (pending != null) {
+            pending.await();
+            pendingKeyframe = null;
+        }
+    }
+
     // 将一行数据加入写入队列
     private void enqueue(String line) {
         if (!lineQueue.offer(line)) {
             // 简单丢弃策略：队列满时丢弃低优先级数据（此处直接丢弃）
+            droppedLines++;
             System.err.println("录制队列已满，丢弃数据");
         }
     }
@@ -239,4 +210,8 @@ public class RecordingService {
         return recording;
     }
 
+    public long getDroppedLines() {
+        return droppedLines;
+    }
+
 }
\ No newline at end of file
@@ -1,44 +1,68 @@
 package com.gameengine.scene;
 
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.EntityWorld;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.Component;
 import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
+import com.gameengine.core.JobSystem;
+import com.gameengine.core.UpdatePhase;
 
 // 移除具体游戏逻辑的import
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
  * 场景类，管理游戏对象和组件
  */
 public class Scene {
+    private static final UpdatePhase[] PHASES = UpdatePhase.values();
+    private static final int PARALLEL_CHUNK = 64; // 并行更新时每个任务处理的对象数
+    
     private String name;
-    private List<GameObject> gameObjects;
+    private GameObject[] gameObjects;  // 场景中的对象（紧凑数组，删除时用最后一个对象填补空位）
+    private int objectCount;
+    private final List<GameObject> gameObjectView; // gameObjects 的实时只读视图
     private List<GameObject> objectsToAdd;
     private List<GameObject> objectsToRemove;
     private boolean initialized;
     // 移除未使用的组件索引
     private GameEngine engine; // 新增：存储所属引擎
     private GameLogic gameLogic; // 新增：存储关联的游戏逻辑
+    private float renderAlpha; // 当前帧渲染插值系数
+    private final SceneIndex index; // 按名称/标签的对象索引
+    private boolean parallelUpdate; // 是否启用并行更新（默认关闭）
+    private volatile boolean inParallelPhase; // 是否正在执行并行阶段
+    private final Queue<Runnable> deferredChanges; // 并行阶段内推迟的结构性修改
+    private GameObject[] parallelObjects; // 本帧可并行更新的对象（复用缓冲区）
+    private int parallelCount;
     
     public Scene(String name) {
         this.name = name;
-        this.gameObjects = new ArrayList<>();
+        this.gameObjects = new GameObject[64];
+        this.objectCount = 0;
+        this.gameObjectView = new GameObjectView();
         this.objectsToAdd = new ArrayList<>();
         this.objectsToRemove = new ArrayList<>();
         this.initialized = false;
         // 移除组件索引初始化
         this.engine = null; // 初始化引擎引用为null
         this.gameLogic = null; // 初始化游戏逻辑为null
+        this.renderAlpha = 1.0f;
+        this.index = new SceneIndex();
+        this.parallelUpdate = false;
+        this.deferredChanges = new ConcurrentLinkedQueue<>();
+        this.parallelObjects = new GameObject[64];
     }
     
     /**
      * 初始化场景
      */
     public void initialize() {
-        for (GameObject obj : gameObjects) {
-            obj.initialize();
+        for (int i = 0; i < objectCount; i++) {
+            gameObjects[i].initialize();
         }
         initialized = true;
     }
@@ -47,9 +71,10 @@ public class Scene {
      * 更新场景
      */
     public void update(float deltaTime) {
-        // 添加新对象
-        for (GameObject obj : objectsToAdd) {
-            gameObjects.add(obj);
+        // 添加新对象（按下标遍历，大多数帧列表为空，不为此创建迭代器）
+        for (int i = 0; i < objectsToAdd.size(); i++) {
+            GameObject obj = objectsToAdd.get(i);
+            insert(obj);
             if (initialized) {
                 obj.initialize();
             }
@@ -57,28 +82,173 @@ public class Scene {
         objectsToAdd.clear();
         
         // 移除标记的对象
-        for (GameObject obj : objectsToRemove) {
-            gameObjects.remove(obj);
+        for (int i = 0; i < objectsToRemove.size(); i++) {
+            GameObject obj = objectsToRemove.get(i);
+            int slot = obj.getSceneIndex();
+            if (slot >= 0 && slot < objectCount && gameObjects[slot] == obj) {
+                removeAt(slot);
+            }
         }
         objectsToRemove.clear();
         
-        // 更新所有活跃的游戏对象
-        Iterator<GameObject> iterator = gameObjects.iterator();
-        while (iterator.hasNext()) {
-            GameObject obj = iterator.next();
+        // 记录本步开始前的位置，用于渲染插值（只处理本场景的对象，其他场景和未入场景的对象不受影响）
+        for (int i = 0; i < objectCount; i++) {
+            TransformComponent transform = gameObjects[i].getComponent(TransformComponent.class);
+            if (transform != null) {
+                transform.storePreviousPosition();
+            }
+        }
+        
+        if (parallelUpdate) {
+            updateParallel(deltaTime);
+            return;
+        }
+        
+        // 更新所有活跃的游戏对象，移除并回收不再活跃的对象
+        // 删除时最后一个对象移到当前位置，所以删除后不前进下标
+        int i = 0;
+        while (i < objectCount) {
+            GameObject obj = gameObjects[i];
             if (obj.isActive()) {
                 obj.update(deltaTime);
+                i++;
             } else {
-                iterator.remove();
+                removeAt(i);
+                obj.recycle();
+            }
+        }
+        index.flushRemovals();
+    }
+    
+    /**
+     * 并行更新：先在主线程移除不再活跃的对象并串行更新不能并行的对象，
+     * 再把可并行的对象按阶段分块交给引擎的任务系统更新，最后在提交点依次执行推迟的结构性修改
+     */
+    private void updateParallel(float deltaTime) {
+        parallelCount = 0;
+        int i = 0;
+        while (i < objectCount) {
+            GameObject obj = gameObjects[i];
+            if (!obj.isActive()) {
+                removeAt(i);
+                obj.recycle();
+                continue;
+            }
+            if (obj.isParallelUpdatable()) {
+                if (parallelCount == parallelObjects.length) {
+                    parallelObjects = Arrays.copyOf(parallelObjects, parallelCount * 2);
+                }
+                parallelObjects[parallelCount++] = obj;
+            } else {
+                obj.update(deltaTime);
+            }
+            i++;
+        }
+        index.flushRemovals();
+        
+        // 场景未挂到引擎时没有任务系统，在主线程依次执行各阶段
+        JobSystem jobs = engine != null ? engine.getJobSystem() : null;
+        inParallelPhase = true;
+        try {
+            for (UpdatePhase phase : PHASES) {
+                if (jobs != null) {
+                    jobs.parallelFor(parallelCount, PARALLEL_CHUNK,
+                        (from, to) -> updatePhase(phase, deltaTime, from, to));
+                } else {
+                    updatePhase(phase, deltaTime, 0, parallelCount);
+                }
+            }
+        } finally {
+            inParallelPhase = false;
+        }
+        Arrays.fill(parallelObjects, 0, parallelCount, null);
+        
+        // 提交点：执行并行阶段内推迟的结构性修改（不再活跃的对象在下一次更新时移除）
+        Runnable change;
+        while ((change = deferredChanges.poll()) != null) {
+            change.run();
+        }
+    }
+    
+    private void updatePhase(UpdatePhase phase, float deltaTime, int from, int to) {
+        for (int i = from; i < to; i++) {
+            GameObject obj = parallelObjects[i];
+            if (obj.isActive()) {
+                obj.updateComponents(phase, deltaTime);
             }
         }
     }
     
+    /**
+     * 执行结构性修改（添加/销毁对象、生成子弹等）：
+     * 并行阶段内调用时排队到提交点在主线程执行，否则立即执行
+     */
+    public void deferStructuralChange(Runnable change) {
+        if (inParallelPhase) {
+            deferredChanges.add(change);
+        } else {
+            change.run();
+        }
+    }
+    
+    /**
+     * 是否正在执行并行更新阶段（此时不能直接修改场景结构）
+     */
+    public boolean isInParallelPhase() {
+        return inParallelPhase;
+    }
+    
+    /**
+     * 启用/禁用并行更新模式
+     */
+    public void setParallelUpdate(boolean parallelUpdate) {
+        this.parallelUpdate = parallelUpdate;
+    }
+    
+    public boolean isParallelUpdate() {
+        return parallelUpdate;
+    }
+    
+    // 追加到紧凑数组末尾
+    private void insert(GameObject obj) {
+        if (objectCount == gameObjects.length) {
+            gameObjects = Arrays.copyOf(gameObjects, objectCount * 2);
+        }
+        obj.attachEntity(); // 第一次加入场景时才分配实体
+        obj.setSceneIndex(objectCount);
+        gameObjects[objectCount++] = obj;
+        index.add(obj);
+    }
+    
+    // 删除指定位置的对象：用最后一个对象填补，O(1)
+    private void removeAt(int slot) {
+        GameObject obj = gameObjects[slot];
+        int last = --objectCount;
+        if (slot != last) {
+            GameObject moved = gameObjects[last];
+            gameObjects[slot] = moved;
+            moved.setSceneIndex(slot);
+        }
+        gameObjects[last] = null;
+        obj.setSceneIndex(-1);
+        index.remove(obj);
+    }
+    
+    /**
+     * 以指定插值系数渲染场景（固定步长模式下由引擎调用）
+     * @param alpha 上一模拟步到当前模拟步之间的插值系数（0~1）
+     */
+    public void render(float alpha) {
+        this.renderAlpha = alpha;
+        render();
+    }
+    
     /**
      * 渲染场景
      */
     public void render() {
-        for (GameObject obj : gameObjects) {
+        for (int i = 0; i < objectCount; i++) {
+            GameObject obj = gameObjects[i];
             if (obj.isActive()) {
                 obj.render();
             }
@@ -89,43 +259,70 @@ public class Scene {
      * 添加游戏对象到场景
      */
     public void addGameObject(GameObject gameObject) {
+        if (inParallelPhase) {
+            deferredChanges.add(() -> addGameObject(gameObject));
+            return;
+        }
         objectsToAdd.add(gameObject);
         gameObject.setScene(this); // 关键：将当前场景设置给游戏对象
     }
     
+    /**
+     * 从场景移除游戏对象（下一次更新时生效，不销毁对象）
+     */
+    public void removeGameObject(GameObject gameObject) {
+        if (inParallelPhase) {
+            deferredChanges.add(() -> removeGameObject(gameObject));
+            return;
+        }
+        objectsToRemove.add(gameObject);
+    }
+    
     /**
      * 根据组件类型查找游戏对象
      */
     public <T extends Component<T>> List<GameObject> findGameObjectsByComponent(Class<T> componentType) {
-        return gameObjects.stream()
+        return gameObjectView.stream()
             .filter(obj -> obj.hasComponent(componentType))
             .collect(Collectors.toList());
     }
 
     /**
      * 根据对象名字查找游戏对象
+     * 返回随场景实时更新的只读视图（不分配内存），需要快照时请自行复制
+     * 场景中从未出现过该名称时返回共享的空列表，它不会随之后加入的对象更新
      */
     public List<GameObject> findGameObjectsByName(String name) {
-        List<GameObject> result = new ArrayList<>();
-        for (GameObject obj : gameObjects) {
-            if (name.equals(obj.getName())) {
-                result.add(obj);
-            }
-        }
-        return result;
+        return index.findByName(name);
     }
 
     /**
      * 根据包含指定子串的名称查找游戏对象
+     * 返回随场景实时更新的只读视图，按名称分组排列（同名对象保持加入场景的顺序）
      */
     public List<GameObject> findGameObjectsByNameContaining(String substring) {
-        List<GameObject> result = new ArrayList<>();
-        for (GameObject obj : gameObjects) {
-            if (obj.getName() != null && obj.getName().contains(substring)) {
-                result.add(obj);
-            }
-        }
-        return result;
+        return index.findByNameContaining(substring);
+    }
+
+    /**
+     * 查找带有指定标签（0~63）的游戏对象，返回实时只读视图
+     */
+    public List<GameObject> findGameObjectsByTag(int tag) {
+        return index.findByTag(tag);
+    }
+
+    /**
+     * 对象改名时由 GameObject 调用，更新名称索引
+     */
+    public void onGameObjectRenamed(GameObject obj, String oldName) {
+        index.rename(obj, oldName);
+    }
+
+    /**
+     * 对象标签变化时由 GameObject 调用，更新标签索引
+     */
+    public void onGameObjectTagsChanged(GameObject obj, long oldTags) {
+        index.retag(obj, oldTags);
     }
     
     /**
@@ -139,12 +336,28 @@ public class Scene {
     }
     
     /**
-     * 清空场景
+     * 清空场景，销毁场景中的所有对象
      */
     public void clear() {
-        gameObjects.clear();
+        for (int i = 0; i < objectCount; i++) {
+            gameObjects[i].setSceneIndex(-1);
+            gameObjects[i].destroy();
+        }
+        for (GameObject obj : objectsToAdd) {
+            obj.destroy();
+        }
+        Arrays.fill(gameObjects, 0, objectCount, null);
+        objectCount = 0;
         objectsToAdd.clear();
         objectsToRemove.clear();
+        index.clear();
+    }
+    
+    /**
+     * 释放场景资源（场景被切换掉后由引擎在帧末调用）
+     */
+    public void dispose() {
+        clear();
     }
     
     /**
@@ -155,10 +368,63 @@ public class Scene {
     }
     
     /**
-     * 获取所有游戏对象
+     * 获取所有游戏对象的快照（复制列表，每帧遍历请用 getGameObjectView 或按下标访问）
      */
     public List<GameObject> getGameObjects() {
-        return new ArrayList<>(gameObjects);
+        return new ArrayList<>(gameObjectView);
+    }
+
+    /**
+     * 获取所有游戏对象的实时只读视图（不复制）
+     * 删除对象时最后一个对象会移到被删除的位置，因此遍历顺序不是加入顺序；遍历期间不要更新场景
+     */
+    public List<GameObject> getGameObjectView() {
+        return gameObjectView;
+    }
+
+    /**
+     * 场景中的对象数量
+     */
+    public int getGameObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * 按下标获取对象（0 ~ getGameObjectCount()-1）
+     */
+    public GameObject getGameObjectAt(int i) {
+        Objects.checkIndex(i, objectCount);
+        return gameObjects[i];
+    }
+
+    /**
+     * 按稳定句柄（GameObject.getId()）获取场景中的对象，对象已离开场景或句柄失效时返回 null
+     */
+    public GameObject getGameObject(long handle) {
+        GameObject obj = EntityWorld.getInstance().getGameObject(handle);
+        if (obj == null || obj.getScene() != this) return null;
+        int slot = obj.getSceneIndex();
+        return slot >= 0 && slot < objectCount && gameObjects[slot] == obj ? obj : null;
+    }
+
+    // 紧凑数组上的只读视图
+    private final class GameObjectView extends AbstractList<GameObject> implements RandomAccess {
+        @Override
+        public GameObject get(int i) {
+            return getGameObjectAt(i);
+        }
+
+        @Override
+        public int size() {
+            return objectCount;
+        }
+    }
+
+    /**
+     * 获取当前帧的渲染插值系数
+     */
+    public float getRenderAlpha() {
+        return renderAlpha;
     }
 
     // 新增：设置所属引擎
@@ -0,0 +1,214 @@
+package com.gameengine.scene;
+
+import com.gameengine.core.GameObject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 场景对象索引：按名称、名称子串和标签位分组，随对象加入/移除场景增量维护
+ * 查询返回实时的只读视图（同一查询每次返回同一视图对象），查询本身不分配内存
+ * 视图会随场景变化而变化，需要快照时请自行复制
+ * 名称分组只在对象加入时创建：查询从未出现过的名称返回共享的空列表，不会让索引无限增长
+ */
+class SceneIndex {
+    // 一组对象及其只读视图（保持加入场景的先后顺序）
+    private static final class Bucket {
+        final List<GameObject> items = new ArrayList<>();
+        final List<GameObject> view = Collections.unmodifiableList(items);
+        boolean dirty; // 有待清除的已离场对象
+
+        // 一次性清除已离开场景的对象，保持其余对象顺序
+        void compact() {
+            int size = items.size();
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                GameObject obj = items.get(i);
+                if (obj.getSceneIndex() >= 0) {
+                    items.set(kept++, obj);
+                }
+            }
+            for (int i = size - 1; i >= kept; i--) {
+                items.remove(i);
+            }
+            dirty = false;
+        }
+    }
+
+    // 名称包含某子串的所有分组拼接成的只读视图（按分组创建顺序，组内保持场景顺序）
+    private static final class ContainsView extends AbstractList<GameObject> {
+        final String substring;
+        final List<Bucket> parts = new ArrayList<>();
+
+        ContainsView(String substring) {
+            this.substring = substring;
+        }
+
+        @Override
+        public GameObject get(int index) {
+            int remaining = index;
+            if (remaining >= 0) {
+                for (int i = 0; i < parts.size(); i++) {
+                    List<GameObject> items = parts.get(i).items;
+                    if (remaining < items.size()) return items.get(remaining);
+                    remaining -= items.size();
+                }
+            }
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int i = 0; i < parts.size(); i++) {
+                size += parts.get(i).items.size();
+            }
+            return size;
+        }
+    }
+
+    private final Map<String, Bucket> byName = new HashMap<>();
+    private final Map<String, ContainsView> byNameContaining = new HashMap<>();
+    private final Bucket[] byTag = new Bucket[64];
+    private final List<Bucket> dirtyBuckets = new ArrayList<>();
+
+    /**
+     * 对象加入场景
+     */
+    void add(GameObject obj) {
+        nameBucket(obj.getName()).items.add(obj);
+        addTags(obj, obj.getTags());
+    }
+
+    /**
+     * 对象离开场景（调用前对象的场景下标已置为-1）
+     * 只标记所在分组，由 flushRemovals 批量清除，大量对象同时离场时不会退化为平方复杂度
+     */
+    void remove(GameObject obj) {
+        markDirty(byName.get(obj.getName()));
+        for (long bits = obj.getTags(); bits != 0; bits &= bits - 1) {
+            markDirty(byTag[Long.numberOfTrailingZeros(bits)]);
+        }
+    }
+
+    /**
+     * 清除所有标记过的分组中已离开场景的对象
+     */
+    void flushRemovals() {
+        for (int i = 0; i < dirtyBuckets.size(); i++) {
+            dirtyBuckets.get(i).compact();
+        }
+        dirtyBuckets.clear();
+    }
+
+    private void markDirty(Bucket bucket) {
+        if (bucket != null && !bucket.dirty) {
+            bucket.dirty = true;
+            dirtyBuckets.add(bucket);
+        }
+    }
+
+    /**
+     * 对象改名（对象不在场景中时忽略）
+     */
+    void rename(GameObject obj, String oldName) {
+        if (obj.getSceneIndex() < 0) return;
+        Bucket old = byName.get(oldName);
+        if (old == null || !old.items.remove(obj)) return;
+        nameBucket(obj.getName()).items.add(obj);
+    }
+
+    /**
+     * 对象标签变化（对象不在场景中时忽略）
+     */
+    void retag(GameObject obj, long oldTags) {
+        if (obj.getSceneIndex() < 0) return;
+        removeTags(obj, oldTags & ~obj.getTags());
+        addTags(obj, obj.getTags() & ~oldTags);
+    }
+
+    List<GameObject> findByName(String name) {
+        Bucket bucket = byName.get(name);
+        return bucket != null ? bucket.view : Collections.emptyList();
+    }
+
+    List<GameObject> findByNameContaining(String substring) {
+        ContainsView view = byNameContaining.get(substring);
+        if (view == null) {
+            view = new ContainsView(substring);
+            for (Map.Entry<String, Bucket> entry : byName.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().contains(substring)) {
+                    view.parts.add(entry.getValue());
+                }
+            }
+            byNameContaining.put(substring, view);
+        }
+        return view;
+    }
+
+    List<GameObject> findByTag(int tag) {
+        return tagBucket(tag).view;
+    }
+
+    /**
+     * 清空所有分组（保留已返回的视图，视图变为空）
+     */
+    void clear() {
+        for (Bucket bucket : byName.values()) {
+            bucket.items.clear();
+            bucket.dirty = false;
+        }
+        for (Bucket bucket : byTag) {
+            if (bucket != null) {
+                bucket.items.clear();
+                bucket.dirty = false;
+            }
+        }
+        dirtyBuckets.clear();
+    }
+
+    private Bucket nameBucket(String name) {
+        Bucket bucket = byName.get(name);
+        if (bucket == null) {
+            bucket = new Bucket();
+            byName.put(name, bucket);
+            // 新名称加入已有的子串视图
+            if (name != null) {
+                for (ContainsView view : byNameContaining.values()) {
+                    if (name.contains(view.substring)) {
+                        view.parts.add(bucket);
+                    }
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private Bucket tagBucket(int tag) {
+        Objects.checkIndex(tag, byTag.length);
+        if (byTag[tag] == null) {
+            byTag[tag] = new Bucket();
+        }
+        return byTag[tag];
+    }
+
+    private void addTags(GameObject obj, long tags) {
+        for (long bits = tags; bits != 0; bits &= bits - 1) {
+            tagBucket(Long.numberOfTrailingZeros(bits)).items.add(obj);
+        }
+    }
+
+    private void removeTags(GameObject obj, long tags) {
+        for (long bits = tags; bits != 0; bits &= bits - 1) {
+            Bucket bucket = byTag[Long.numberOfTrailingZeros(bits)];
+            if (bucket != null) {
+                bucket.items.remove(obj);
+            }
+        }
+    }
+}